@@ -0,0 +1,74 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Hunter's kit and treasure bookkeeping, and the HUD that shows it every turn.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HunterBenchmark {
+    private Hunter hunter;
+    private Town town;
+    private Hud hud;
+
+    @Setup
+    public void setUp() {
+        hunter = new Hunter("bench", 100);
+        hunter.testMode();
+        EventRing events = new EventRing(1024);
+        Shop shop = new Shop(0.5, false, prompt -> "n", HeadlessOutput.INSTANCE, events);
+        town = new Town(shop, DifficultyProfile.NORMAL, HeadlessOutput.INSTANCE, new GameRandom(42), events);
+        hud = new Hud();
+        hud.show(HeadlessOutput.INSTANCE, hunter, town);
+    }
+
+    @Benchmark
+    public boolean hasItemInKitHit() {
+        return hunter.hasItemInKit(Item.SHOVEL.id());
+    }
+
+    @Benchmark
+    public boolean hasItemInKitMiss() {
+        return hunter.hasItemInKit(Item.SWORD.id());
+    }
+
+    // buyItem is the public way into addItem; the item is taken back out so every call adds it again
+    @Benchmark
+    public boolean addItem() {
+        hunter.removeItemFromKit(Item.BOOTS.id());
+        return hunter.buyItem(Item.BOOTS.id(), 0);
+    }
+
+    @Benchmark
+    public String getInventory() {
+        return hunter.getInventory();
+    }
+
+    @Benchmark
+    public String infoString() {
+        return hunter.infoString();
+    }
+
+    // a turn where nothing the HUD shows has changed
+    @Benchmark
+    public Hud hudUnchanged() {
+        hud.show(HeadlessOutput.INSTANCE, hunter, town);
+        return hud;
+    }
+
+    // a turn where only the gold has changed
+    @Benchmark
+    public Hud hudGoldChanged() {
+        hunter.changeGold(hunter.getHunterGold() == 100 ? 1 : -1);
+        hud.show(HeadlessOutput.INSTANCE, hunter, town);
+        return hud;
+    }
+}
@@ -0,0 +1,49 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks looking up the name a player typed, and building the registry's perfect hash, for the standard
+ * registry and for a catalog of 4096 items.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemRegistryBenchmark {
+    // a standard item, a catalog item (not in the standard registry) and a name in neither
+    @Param({"shovel", "trinket4000", "dust"})
+    public String name;
+
+    @Param({"0", "4085"})
+    public int catalogItems;
+
+    private List<String> catalog;
+    private ItemRegistry items;
+
+    @Setup
+    public void setUp() {
+        catalog = new ArrayList<>();
+        for (int i = 0; i < catalogItems; i++) {
+            catalog.add("trinket" + i + "," + (i % 50 + 1) + ",1," + (i % 5 + 1));
+        }
+        items = new ItemRegistry(catalog);
+    }
+
+    @Benchmark
+    public int idOf() {
+        return items.idOf(name);
+    }
+
+    @Benchmark
+    public ItemRegistry build() {
+        return new ItemRegistry(catalog);
+    }
+}
@@ -0,0 +1,66 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks the leaderboard's queries on a board of a million random games, and adding a game to it.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LeaderboardBenchmark {
+    private static final String[] DIFFICULTIES = {"e", "n", "h", "s"};
+
+    private Path directory;
+    private Leaderboard board;
+    private GameRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("treasurehunter");
+        board = new Leaderboard(directory.resolve("leaderboard"));
+        random = new GameRandom(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            add();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        board.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Leaderboard.Entry add() {
+        return board.add("bot", DIFFICULTIES[random.nextInt(4)], random.nextInt(500) - 10,
+                (long) random.nextInt(8) << Item.CROWN.ordinal(), random.nextInt(199) + 1, Outcome.QUIT);
+    }
+
+    @Benchmark
+    public List<Leaderboard.Entry> top10() {
+        return board.top(DIFFICULTIES[random.nextInt(4)], 10);
+    }
+
+    @Benchmark
+    public long rankOf() {
+        return board.rankOf(DIFFICULTIES[random.nextInt(4)], random.nextInt(500) - 10,
+                (long) random.nextInt(8) << Item.CROWN.ordinal(), random.nextInt(199) + 1);
+    }
+}
@@ -0,0 +1,40 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost of GameMetrics on a headless game, where turns are far shorter than a person's.
+ * sampleEvery 0 plays without metrics; the same 1024 games are played over and over in every case.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    @Param({"0", "1", "256"})
+    private int sampleEvery;
+
+    private GameMetrics metrics;
+    private long game;
+
+    @Setup
+    public void setUp() {
+        metrics = sampleEvery == 0 ? null : new GameMetrics(sampleEvery);
+        game = 0;
+    }
+
+    @Benchmark
+    public Outcome playGame() {
+        HeadlessGame headless = new HeadlessGame(random -> new RandomStrategy("n", random),
+                GameRandom.seedFor(42, game++ & 1023), 200);
+        if (metrics != null) {
+            headless.getGame().setMetrics(metrics);
+        }
+        return headless.play();
+    }
+}
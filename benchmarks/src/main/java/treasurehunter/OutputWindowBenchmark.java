@@ -0,0 +1,71 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing one turn's worth of text into the OutputWindow's document without showing a frame.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class OutputWindowBenchmark {
+    private OutputWindow window;
+    private StyledText menu;
+
+    @Setup
+    public void setUp() {
+        window = new OutputWindow(new JTextPane());
+        menu = new StyledText()
+                .append("You couldn't find any trouble" + "\n", Colors.salmon)
+                .append("***" + "\n", Color.darkGray)
+                .append("bench has 20 gold and water rope " + "\n" + "Treasures found: none" + "\n", Colors.pastelBlue)
+                .append("This nice little town is surrounded by Mountains." + "\n", Colors.pastelGreen)
+                .append("(B)uy something at the shop." + "\n", Color.GRAY)
+                .append("(S)ell something at the shop." + "\n", Color.GRAY)
+                .append("(E)xplore surrounding terrain." + "\n", Color.GRAY)
+                .append("(M)ove on to a different town." + "\n", Color.GRAY)
+                .append("(L)ook for trouble!" + "\n", Color.GRAY)
+                .append("(H)unt for treasure!" + "\n", Color.GRAY)
+                .append("(D)ig for gold!" + "\n", Color.GRAY)
+                .append("Give up the hunt and e(X)it." + "\n", Color.GRAY)
+                .append("\n", Color.GRAY)
+                .append("What's your next move? " + "\n", Color.GRAY);
+    }
+
+    // what showMenu draws every turn, after processChoice has cleared the window, until it is in the document
+    @Benchmark
+    public void renderTurn() {
+        window.clear();
+        window.addTextToWindow("You couldn't find any trouble" + "\n", Colors.salmon);
+        window.addTextToWindow("***" + "\n", Color.darkGray);
+        window.addTextToWindow("bench has 20 gold and water rope " + "\n" + "Treasures found: none" + "\n", Colors.pastelBlue);
+        window.addTextToWindow("This nice little town is surrounded by Mountains." + "\n", Colors.pastelGreen);
+        window.addTextToWindow("(B)uy something at the shop." + "\n", Color.GRAY);
+        window.addTextToWindow("(S)ell something at the shop." + "\n", Color.GRAY);
+        window.addTextToWindow("(E)xplore surrounding terrain." + "\n", Color.GRAY);
+        window.addTextToWindow("(M)ove on to a different town." + "\n", Color.GRAY);
+        window.addTextToWindow("(L)ook for trouble!" + "\n", Color.GRAY);
+        window.addTextToWindow("(H)unt for treasure!" + "\n", Color.GRAY);
+        window.addTextToWindow("(D)ig for gold!" + "\n", Color.GRAY);
+        window.addTextToWindow("Give up the hunt and e(X)it." + "\n", Color.GRAY);
+        window.addTextToWindow("\n", Color.GRAY);
+        window.addTextToWindow("What's your next move? " + "\n", Color.GRAY);
+        window.awaitFlush();
+    }
+
+    // the same turn sent as one multi-run call
+    @Benchmark
+    public void renderTurnStyled() {
+        window.clear();
+        window.addStyledText(menu);
+        window.awaitFlush();
+    }
+}
@@ -0,0 +1,43 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for planning a route from a random town of a 100,000 town world, for a hunter with
+ * an empty kit and 100 gold.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutePlannerBenchmark {
+    @Param({"gem", "any"})
+    public String missing;
+
+    private GameRandom random;
+    private RoutePlanner planner;
+    private long treasures;
+
+    @Setup
+    public void setUp() {
+        random = new GameRandom(42);
+        EventRing events = new EventRing(1024);
+        Shop shop = new Shop(0.5, false, prompt -> "n", HeadlessOutput.INSTANCE, events);
+        World world = new World(42, 400, 250, 1024,
+                layout -> new Town(multiplier -> new Shop(0.5, false, multiplier, ItemRegistry.STANDARD, prompt -> "n",
+                        HeadlessOutput.INSTANCE, events), DifficultyProfile.NORMAL, HeadlessOutput.INSTANCE, random, events, layout));
+        planner = new RoutePlanner(world, shop, 0.5);
+        // only a quarter of the towns hold a gem, so looking for it alone searches further
+        treasures = missing.equals("gem") ? Item.CROWN.bit() | Item.TROPHY.bit() : 0;
+    }
+
+    @Benchmark
+    public RoutePlanner.Plan plan() {
+        return planner.plan(random.nextInt(100_000), 0, 100, treasures);
+    }
+}
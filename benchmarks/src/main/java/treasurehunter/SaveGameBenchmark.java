@@ -0,0 +1,52 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the per-turn autosave, writing a game that has just entered its first town.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveGameBenchmark {
+    private Path file;
+    private SaveGame save;
+    private TreasureHunter game;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("treasurehunter", ".sav");
+        save = new SaveGame(file);
+        // with no turns allowed the game stops at the first menu, with its hunter and town set up
+        HeadlessGame headless = new HeadlessGame(random -> new RandomStrategy("n", random), 42, 0);
+        headless.play();
+        game = headless.getGame();
+        save.save(game);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        save.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void save() {
+        save.save(game);
+    }
+
+    // restoring builds a new hunter, shop and town
+    @Benchmark
+    public boolean load() {
+        return save.load(game);
+    }
+}
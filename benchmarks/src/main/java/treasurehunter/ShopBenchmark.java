@@ -0,0 +1,45 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Shop's price lookups and inventory listing.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShopBenchmark {
+    // the first and last entries of the price list, and one the shop doesn't sell
+    @Param({"water", "sword", "dust"})
+    public String item;
+
+    private int id;
+    private Shop shop;
+
+    @Setup
+    public void setUp() {
+        shop = new Shop(0.5, true, prompt -> "n", HeadlessOutput.INSTANCE, new EventRing(1024));
+        id = shop.getItems().idOf(item);
+    }
+
+    @Benchmark
+    public int getCostOfItem() {
+        return shop.getCostOfItem(id);
+    }
+
+    @Benchmark
+    public int checkMarketPriceSelling() {
+        return shop.checkMarketPrice(id, false);
+    }
+
+    @Benchmark
+    public String inventory() {
+        return shop.inventory(true);
+    }
+}
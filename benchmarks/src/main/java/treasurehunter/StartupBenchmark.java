@@ -0,0 +1,95 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time-to-first-prompt: from creating the game's output until the name prompt is shown
+ * and the game is waiting for input. Every measurement runs in a freshly started JVM, so it includes
+ * class loading and, for the Swing paths, starting AWT and loading fonts.<p>
+ * sink=terminal is the headless ANSI path and sink=swing is the Swing text stack without a frame;
+ * both run anywhere. sink=window opens a real frame and needs a display: run it with -p sink=window.
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    @Param({"terminal", "swing"})
+    public String sink;
+
+    @Benchmark
+    public int timeToFirstPrompt() {
+        OutputSink window;
+        if (sink.equals("terminal")) {
+            window = new LazyOutput(() -> new AnsiTerminal(new DiscardChannel()));
+        } else if (sink.equals("swing")) {
+            window = new LazyOutput(() -> new OutputWindow(new JTextPane()));
+        } else {
+            window = new LazyOutput(OutputWindow::new);
+        }
+        FirstPrompt input = new FirstPrompt(window, !sink.equals("terminal"));
+        try {
+            new TreasureHunter(input, window, new GameRandom(1)).play();
+        } catch (FirstPrompt.Reached reached) {
+            // the game stopped at the name prompt
+        }
+        return input.prompts;
+    }
+
+    /**
+     * Stops the game the moment it first asks for input, once its output is really in place.
+     */
+    private static class FirstPrompt implements InputSource {
+        private final OutputSink window;
+        private final boolean swing;
+        private int prompts;
+
+        FirstPrompt(OutputSink window, boolean swing) {
+            this.window = window;
+            this.swing = swing;
+        }
+
+        public String nextLine(Prompt prompt) {
+            prompts++;
+            window.flush();
+            if (swing) {
+                // the flush is drawn by the event thread; wait for it to get there
+                try {
+                    SwingUtilities.invokeAndWait(() -> { });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            throw new Reached();
+        }
+
+        private static class Reached extends RuntimeException {
+            Reached() {
+                super(null, null, false, false);
+            }
+        }
+    }
+
+    private static class DiscardChannel implements WritableByteChannel {
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        public boolean isOpen() {
+            return true;
+        }
+
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the things a Hunter does in town.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TownBenchmark {
+    private GameRandom random;
+    private EventRing events;
+    private EventProcessor narrative; // drained after every action, as the game does, so the news is written too
+    private Shop shop;
+    private Hunter hunter;
+    private Town town;
+
+    @Setup
+    public void setUp() {
+        random = new GameRandom(42);
+        events = new EventRing(1024);
+        shop = new Shop(0.5, false, prompt -> "n", HeadlessOutput.INSTANCE, events);
+        hunter = new Hunter("bench", 100);
+        hunter.testMode();
+        town = new Town(shop, DifficultyProfile.NORMAL, HeadlessOutput.INSTANCE, random, events);
+        town.hunterArrives(hunter);
+        NarrativeConsumer consumer = new NarrativeConsumer(HeadlessOutput.INSTANCE);
+        consumer.setTown(town);
+        narrative = events.addConsumer(consumer);
+    }
+
+    @Benchmark
+    public String lookForTrouble() {
+        town.resetNews();
+        town.lookForTrouble();
+        narrative.drain();
+        hunter.changeGold(100 - hunter.getHunterGold()); // keep the hunter solvent
+        return town.getLatestNews();
+    }
+
+    // leaving can break the item, so it is handed back after every crossing
+    @Benchmark
+    public boolean leaveTown() {
+        town.resetNews();
+        boolean left = town.leaveTown();
+        narrative.drain();
+        hunter.buyItem(town.getTerrain().getNeededItem(), 0);
+        return left;
+    }
+
+    // getNewTerrain is private; building a Town calls it once along with the toughness roll
+    @Benchmark
+    public Town getNewTerrain() {
+        return new Town(shop, DifficultyProfile.NORMAL, HeadlessOutput.INSTANCE, random, events);
+    }
+}
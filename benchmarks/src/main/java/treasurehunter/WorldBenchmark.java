@@ -0,0 +1,47 @@
+package treasurehunter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for a hunter wandering a world of a million towns with 1024 of them kept in memory.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldBenchmark {
+    private GameRandom random;
+    private World world;
+    private int[] roads;
+    private int townId;
+
+    @Setup
+    public void setUp() {
+        random = new GameRandom(42);
+        EventRing events = new EventRing(1024);
+        world = new World(42, 1000, 1000, 1024, layout -> new Town(multiplier -> new Shop(0.5, false, multiplier,
+                ItemRegistry.STANDARD, prompt -> "n", HeadlessOutput.INSTANCE, events),
+                DifficultyProfile.NORMAL, HeadlessOutput.INSTANCE, random, events, layout));
+        roads = new int[4];
+        townId = 0;
+    }
+
+    // a random walk mostly stays near towns it has seen, so this mixes cache hits with towns built afresh
+    @Benchmark
+    public Town walk() {
+        int count = world.neighbors(townId, roads);
+        townId = roads[random.nextInt(count)];
+        return world.getTown(townId);
+    }
+
+    @Benchmark
+    public int neighbors() {
+        townId = (townId + 7919) % world.getTownCount();
+        return world.neighbors(townId, roads);
+    }
+}
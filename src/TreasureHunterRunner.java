@@ -1,6 +0,0 @@
-public class TreasureHunterRunner {
-    public static void main(String[] args) {
-        TreasureHunter game = new TreasureHunter();
-        game.play();
-    }
-}
@@ -0,0 +1,40 @@
+package treasurehunter;
+
+/**
+ * The choices on the game's menu, for counting and timing what players do (see GameMetrics).
+ */
+
+public enum Action {
+    BUY,      // b
+    SELL,     // s
+    EXPLORE,  // e
+    MOVE,     // m
+    TROUBLE,  // l
+    HUNT,     // h
+    DIG,      // d
+    HINT,     // ?
+    EXIT,     // x
+    INVALID;  // anything else
+
+    // constants
+    private static final Action[] BY_LETTER = new Action[128];
+
+    static {
+        String letters = "bsemlhd?x";
+        for (int i = 0; i < letters.length(); i++) {
+            BY_LETTER[letters.charAt(i)] = values()[i];
+        }
+    }
+
+    /**
+     * @param choice The line typed at the menu, already in lower case.
+     * @return The action it chooses.
+     */
+    public static Action forChoice(String choice) {
+        // this runs every turn, so it looks the letter up in a table rather than switching on the string
+        if (choice.length() == 1 && choice.charAt(0) < BY_LETTER.length && BY_LETTER[choice.charAt(0)] != null) {
+            return BY_LETTER[choice.charAt(0)];
+        }
+        return INVALID;
+    }
+}
@@ -0,0 +1,158 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An OutputSink that draws the game in a terminal using ANSI escape codes, for machines without a display.<p>
+ * Each color is mapped to the nearest of the terminal's 256 colors. Text is collected in a buffer and only
+ * written out, through a single channel, when flush() is called (the game flushes before it waits for
+ * input) or the buffer fills up.
+ */
+
+public class AnsiTerminal implements OutputSink {
+    // constants
+    private static final String RESET = "\033[0m";
+    private static final String DEFAULT_COLOR = "\033[39m";
+    private static final String CLEAR_SCREEN = "\033[H\033[2J";
+    private static final int BUFFER_CHARS = 8192;
+    private static final int[] CUBE_LEVELS = {0, 95, 135, 175, 215, 255};
+
+    // static variables
+    private static final ConcurrentHashMap<Color, String> ESCAPES = new ConcurrentHashMap<>();
+
+    // instance variables
+    private final WritableByteChannel out;
+    private final StringBuilder buffer;
+    private final CharsetEncoder encoder;
+    private ByteBuffer bytes;
+    private Color currentColor;
+
+    /**
+     * Creates a terminal that writes to standard output.
+     */
+    public AnsiTerminal() {
+        this(new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    /**
+     * @param out Where the escape codes and text are written.
+     */
+    public AnsiTerminal(WritableByteChannel out) {
+        this.out = out;
+        buffer = new StringBuilder(BUFFER_CHARS);
+        encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes = ByteBuffer.allocate(BUFFER_CHARS * 2);
+        currentColor = null;
+    }
+
+    public void addTextToWindow(String text, Color color) {
+        if (!color.equals(currentColor)) {
+            buffer.append(escapeFor(color));
+            currentColor = color;
+        }
+        buffer.append(text);
+        if (buffer.length() >= BUFFER_CHARS) {
+            flush();
+        }
+    }
+
+    public void clear() {
+        buffer.append(CLEAR_SCREEN);
+    }
+
+    /**
+     * Writes everything buffered so far to the terminal, then resets its colors so whatever is typed or printed
+     * next is drawn in the terminal's own colors.
+     */
+    public void flush() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        buffer.append(RESET);
+        currentColor = null;
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        encoder.reset();
+        try {
+            // write out whenever the byte buffer fills, then once more for the rest
+            while (encoder.encode(chars, bytes, true).isOverflow()) {
+                writeBytes();
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Finds the escape code that switches the terminal to the nearest of its 256 colors.<p>
+     * Black is drawn in the terminal's own text color so it stays readable on dark backgrounds.
+     *
+     * @param color The color to draw in.
+     * @return The escape code.
+     */
+    static String escapeFor(Color color) {
+        return ESCAPES.computeIfAbsent(color, c -> {
+            if (c.equals(Color.BLACK)) {
+                return DEFAULT_COLOR;
+            }
+            return "\033[38;5;" + nearestCode(c.getRed(), c.getGreen(), c.getBlue()) + "m";
+        });
+    }
+
+    /**
+     * Picks the closest of the 6x6x6 color cube (codes 16-231) and the gray ramp (codes 232-255).
+     */
+    static int nearestCode(int red, int green, int blue) {
+        int r = nearestLevel(red);
+        int g = nearestLevel(green);
+        int b = nearestLevel(blue);
+        int cubeCode = 16 + 36 * r + 6 * g + b;
+        int cubeDistance = distance(red, green, blue, CUBE_LEVELS[r], CUBE_LEVELS[g], CUBE_LEVELS[b]);
+
+        int average = (red + green + blue) / 3;
+        int grayStep = Math.max(0, Math.min(23, (average - 8 + 5) / 10));
+        int gray = 8 + 10 * grayStep;
+        int grayDistance = distance(red, green, blue, gray, gray, gray);
+
+        return grayDistance < cubeDistance ? 232 + grayStep : cubeCode;
+    }
+
+    private static int nearestLevel(int value) {
+        int best = 0;
+        for (int i = 1; i < CUBE_LEVELS.length; i++) {
+            if (Math.abs(CUBE_LEVELS[i] - value) < Math.abs(CUBE_LEVELS[best] - value)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int distance(int r1, int g1, int b1, int r2, int g2, int b2) {
+        return (r1 - r2) * (r1 - r2) + (g1 - g2) * (g1 - g2) + (b1 - b2) * (b1 - b2);
+    }
+}
@@ -0,0 +1,30 @@
+package treasurehunter;
+
+/**
+ * Supplies a fixed list of lines, one per prompt, such as the lines a journal recorded.
+ */
+
+public class ArrayInput implements InputSource {
+    // instance variables
+    private final String[] lines;
+    private int next;
+
+    public ArrayInput(String... lines) {
+        this.lines = lines;
+        next = 0;
+    }
+
+    /**
+     * @return How many lines have not been read yet.
+     */
+    public int remaining() {
+        return lines.length - next;
+    }
+
+    public String nextLine(Prompt prompt) {
+        if (next == lines.length) {
+            throw new IllegalStateException("ran out of input at prompt " + prompt + " after " + lines.length + " lines");
+        }
+        return lines[next++];
+    }
+}
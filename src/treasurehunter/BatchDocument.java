@@ -0,0 +1,198 @@
+package treasurehunter;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+
+import java.util.ArrayList;
+
+/**
+ * A styled document that can append many differently colored runs of text in a single insert.<p>
+ * Each call to insertString makes its own edit, undo record and change event; appending a whole
+ * batch of runs through one insert does all of that once.<p>
+ * The document can also be given a scrollback limit. It remembers where each line it holds ends in a
+ * ring buffer, and once it holds a chunk more lines than the limit it removes the oldest chunk in one go,
+ * so trimming costs a constant amount per line added.
+ */
+
+public class BatchDocument extends DefaultStyledDocument {
+    // constants
+    private static final long serialVersionUID = 1L;
+    private static final char[] NEWLINE = {'\n'};
+
+    // instance variables
+    private final ArrayList<ElementSpec> batch = new ArrayList<>();
+    private int batchChars;
+    private int maxLines;      // 0 means keep every line
+    private long[] lineEnds;   // ring buffer of where each held line ends, counted from the first character ever added;
+                               // only kept while there is a limit, since nothing is trimmed without one
+    private int firstLine;     // ring buffer index of the oldest line held
+    private int lineCount;
+    private long appendedChars; // characters ever appended
+    private long removedChars;  // characters trimmed off the front
+
+    /**
+     * Creates an empty document that keeps every line.
+     */
+    public BatchDocument() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty document with a scrollback limit.
+     *
+     * @param maxLines The most lines to keep, or 0 to keep every line.
+     */
+    public BatchDocument(int maxLines) {
+        this.maxLines = maxLines;
+        lineEnds = new long[64];
+    }
+
+    /**
+     * Adds a run of text to the pending batch; nothing changes until appendBatch() is called.
+     *
+     * @param text The text, which may contain line breaks.
+     * @param attributes How the text is drawn.
+     */
+    public void addToBatch(String text, AttributeSet attributes) {
+        int start = 0;
+        int newline = text.indexOf('\n');
+        while (newline >= 0) {
+            addContent(text, start, newline, attributes);
+            batch.add(new ElementSpec(attributes, ElementSpec.ContentType, NEWLINE, 0, 1));
+            batchChars++;
+            addLineEnd(appendedChars + batchChars);
+            // the newline ends this paragraph and starts the next one
+            batch.add(new ElementSpec(null, ElementSpec.EndTagType));
+            batch.add(new ElementSpec(getParagraphElement(0).getAttributes(), ElementSpec.StartTagType));
+            start = newline + 1;
+            newline = text.indexOf('\n', start);
+        }
+        addContent(text, start, text.length(), attributes);
+    }
+
+    /**
+     * Appends every pending run to the end of the document as one insert,
+     * then trims the oldest lines if the document is over its scrollback limit.
+     */
+    public void appendBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ElementSpec[] specs = batch.toArray(new ElementSpec[0]);
+        batch.clear();
+        try {
+            insert(getLength(), specs);
+        } catch (BadLocationException e) {
+            // getLength() is always a valid place to insert
+            throw new IllegalStateException(e);
+        }
+        appendedChars += batchChars;
+        batchChars = 0;
+        trim();
+    }
+
+    /**
+     * Changes the scrollback limit, trimming straight away if the document is over the new one.
+     *
+     * @param maxLines The most lines to keep, or 0 to keep every line.
+     */
+    public void setMaxLines(int maxLines) {
+        boolean tracking = this.maxLines > 0;
+        this.maxLines = maxLines;
+        if (maxLines <= 0) {
+            lineEnds = new long[64];
+            firstLine = 0;
+        } else if (!tracking) {
+            findLineEnds();
+        }
+        trim();
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * @return The number of complete lines in the document.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    private void addContent(String text, int start, int end, AttributeSet attributes) {
+        if (end > start) {
+            char[] chars = text.substring(start, end).toCharArray();
+            batch.add(new ElementSpec(attributes, ElementSpec.ContentType, chars, 0, chars.length));
+            batchChars += chars.length;
+        }
+    }
+
+    private void addLineEnd(long end) {
+        if (maxLines > 0) {
+            storeLineEnd(end);
+        } else {
+            lineCount++;
+        }
+    }
+
+    private void storeLineEnd(long end) {
+        if (lineCount == lineEnds.length) {
+            // grow the ring, unwrapping it so the oldest line is at index 0
+            long[] bigger = new long[lineEnds.length * 2];
+            for (int i = 0; i < lineCount; i++) {
+                bigger[i] = lineEnds[(firstLine + i) & (lineEnds.length - 1)];
+            }
+            lineEnds = bigger;
+            firstLine = 0;
+        }
+        lineEnds[(firstLine + lineCount) & (lineEnds.length - 1)] = end;
+        lineCount++;
+    }
+
+    // works out where every line ends when a limit is set on a document that had none, from the lines already
+    // in the document and the newlines still waiting in the batch
+    private void findLineEnds() {
+        lineEnds = new long[64];
+        firstLine = 0;
+        lineCount = 0;
+        String text;
+        try {
+            text = getText(0, getLength());
+        } catch (BadLocationException e) {
+            // the whole document is always a valid range
+            throw new IllegalStateException(e);
+        }
+        for (int newline = text.indexOf('\n'); newline >= 0; newline = text.indexOf('\n', newline + 1)) {
+            storeLineEnd(removedChars + newline + 1);
+        }
+        long end = appendedChars;
+        for (ElementSpec spec : batch) {
+            if (spec.getType() == ElementSpec.ContentType) {
+                end += spec.getLength();
+                if (spec.getArray() == NEWLINE) {
+                    storeLineEnd(end);
+                }
+            }
+        }
+    }
+
+    // removes the oldest lines once there is a whole chunk more than the limit
+    private void trim() {
+        int chunk = Math.max(1, maxLines / 4);
+        if (maxLines <= 0 || lineCount < maxLines + chunk) {
+            return;
+        }
+        int drop = lineCount - maxLines;
+        long end = lineEnds[(firstLine + drop - 1) & (lineEnds.length - 1)];
+        try {
+            remove(0, (int) (end - removedChars));
+        } catch (BadLocationException e) {
+            // the held lines always lie inside the document
+            throw new IllegalStateException(e);
+        }
+        removedChars = end;
+        firstLine = (firstLine + drop) & (lineEnds.length - 1);
+        lineCount -= drop;
+    }
+}
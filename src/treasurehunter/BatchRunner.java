@@ -0,0 +1,155 @@
+package treasurehunter;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Plays a large number of headless games across every core using a fork-join pool.<p>
+ * Game number i is always played from GameRandom.seedFor(seed, i), so a batch gives the same
+ * results however many threads run it, and any single game can be replayed on its own.<p>
+ * Usage: java BatchRunner [games] [difficulty] [maxTurns] [seed]
+ */
+
+public class BatchRunner {
+    // constants
+    private static final int GAMES_PER_TASK = 1024;
+    private static final int TURNS = Outcome.values().length; // index of the total turn count in a tally
+
+    // instance variables
+    private final Function<GameRandom, Strategy> strategies;
+    private final int maxTurns;
+    private final long seed;
+    private GameMetrics metrics;
+    private SimulationStats stats;
+    private DifficultyProfile profile;
+
+    /**
+     * @param strategies Makes a fresh Strategy for each game.
+     * @param maxTurns The most turns any one game may last.
+     * @param seed The seed the whole batch is played from.
+     */
+    public BatchRunner(Function<GameRandom, Strategy> strategies, int maxTurns, long seed) {
+        this.strategies = strategies;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        metrics = null;
+        stats = null;
+        profile = null;
+    }
+
+    /**
+     * Counts and times the turns of every game played from now on.
+     *
+     * @param metrics The metrics to record into, or null to stop.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds up the statistics of every game played from now on.
+     *
+     * @param stats The statistics to add to, or null to stop.
+     */
+    public void setStats(SimulationStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Plays every game from now on with the given difficulty, without asking the strategy for one.
+     *
+     * @param profile The difficulty to play, or null to ask the strategy again.
+     */
+    public void setProfile(DifficultyProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Plays the given number of games on the common fork-join pool.
+     *
+     * @param games How many games to play.
+     * @return A tally with the number of games ending in each Outcome (indexed by ordinal), followed by the total turns played.
+     */
+    public long[] run(long games) {
+        return run(0, games);
+    }
+
+    /**
+     * Plays games number from to to - 1 of the batch, so a batch can be played a part at a time.
+     *
+     * @return A tally like the one run(games) returns, for just these games.
+     */
+    public long[] run(long from, long to) {
+        return ForkJoinPool.commonPool().invoke(new Slice(from, to));
+    }
+
+    private long[] playRange(long from, long to) {
+        long[] tally = new long[TURNS + 1];
+        for (long i = from; i < to; i++) {
+            HeadlessGame game = new HeadlessGame(strategies, GameRandom.seedFor(seed, i), maxTurns);
+            if (metrics != null) {
+                game.getGame().setMetrics(metrics);
+            }
+            if (profile != null) {
+                game.getGame().setProfile(profile);
+            }
+            SimulationStats.Tally watched = stats == null ? null : stats.watch(game.getGame());
+            tally[game.play().ordinal()]++;
+            if (watched != null) {
+                watched.finish();
+            }
+            tally[TURNS] += game.getGame().getTurns();
+        }
+        return tally;
+    }
+
+    /**
+     * A range of games that splits itself in half until it is small enough to play directly.
+     */
+    private class Slice extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        Slice(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        protected long[] compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return playRange(from, to);
+            }
+            long mid = (from + to) >>> 1;
+            Slice left = new Slice(from, mid);
+            left.fork();
+            long[] right = new Slice(mid, to).compute();
+            long[] tally = left.join();
+            for (int i = 0; i < tally.length; i++) {
+                tally[i] += right[i];
+            }
+            return tally;
+        }
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        String difficulty = args.length > 1 ? args[1] : "n";
+        int maxTurns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        BatchRunner runner = new BatchRunner(random -> new RandomStrategy(difficulty, random), maxTurns, seed);
+        long start = System.nanoTime();
+        long[] tally = runner.run(games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games (seed %d) on %d threads in %.2f s: %.0f games/sec%n",
+                games, seed, ForkJoinPool.commonPool().getParallelism(), seconds, games / seconds);
+        for (Outcome outcome : Outcome.values()) {
+            System.out.printf("  %-10s %6.2f%%%n", outcome, 100.0 * tally[outcome.ordinal()] / games);
+        }
+        System.out.printf("  average turns %.1f%n", (double) tally[TURNS] / games);
+    }
+}
@@ -1,4 +1,7 @@
+package treasurehunter;
+
 import java.awt.*;
+import java.util.List;
 
 public class Colors {
 //
@@ -28,4 +31,8 @@ public class Colors {
     public static final Color smokyBlue = new Color(36, 41, 78);
     public static final Color leafGreen = new Color(120, 180, 79);
     public static final Color purpleGray = new Color(86, 78, 90);
-}
\ No newline at end of file
+
+    //every color the game draws in, including the java.awt.Color ones; unmodifiable, since it is shared
+    public static final List<Color> PALETTE = List.of(brown, salmon, pastelBlue, pastelGreen, smokyBlue, leafGreen,
+            purpleGray, Color.BLACK, Color.darkGray, Color.GRAY, Color.RED);
+}
@@ -0,0 +1,37 @@
+package treasurehunter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the player's input from the keyboard (System.in).<p>
+ * Every line goes through one reader, so a script piped into the game arrives whole and in order.
+ */
+
+public class ConsoleInput implements InputSource {
+    // instance variables
+    private final BufferedReader reader;
+
+    public ConsoleInput() {
+        reader = new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()));
+    }
+
+    /**
+     * @throws NoSuchElementException If System.in has been closed.
+     */
+    public String nextLine(Prompt prompt) {
+        try {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new NoSuchElementException("No line found");
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
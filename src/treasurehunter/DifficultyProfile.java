@@ -0,0 +1,175 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Every number that makes a game easier or harder: the gold the hunter starts with, what shops pay for items,
+ * how likely towns are to be tough, the odds of brawls, digging and breaking items, and whether swords are sold.<p>
+ * The four difficulties the player can choose are EASY, NORMAL, HARD and SAMURAI. Other profiles can be made
+ * from them with the with...() methods, for trying out changes to the balance (see DifficultyTuner); a game
+ * plays one with TreasureHunter.setProfile().<p>
+ * In a town, the chance of finding a fight is noTroubleChance (toughNoTroubleChance in a tough town), and the
+ * chance of losing it is the same, as in the original game.
+ */
+
+public class DifficultyProfile {
+    // constants
+    public static final DifficultyProfile EASY = new DifficultyProfile("e", 20, 1, 0.2, 0.2, 0.66, 0, 0.5, 20, false);
+    public static final DifficultyProfile NORMAL = new DifficultyProfile("n", 20, 0.5, 0.4, 0.33, 0.66, 0.5, 0.5, 20, false);
+    public static final DifficultyProfile HARD = new DifficultyProfile("h", 20, 0.25, 0.75, 0.33, 0.66, 0.5, 0.5, 20, false);
+    public static final DifficultyProfile SAMURAI = new DifficultyProfile("s", 20, 0.5, 0.4, 0.33, 0.66, 0.5, 0.5, 20, true);
+
+    // instance variables
+    private final String name;
+    private final int startingGold;
+    private final double markdown;
+    private final double toughChance;
+    private final double noTroubleChance;
+    private final double toughNoTroubleChance;
+    private final double breakChance;
+    private final double digChance;
+    private final int maxDigGold;
+    private final boolean samurai;
+
+    /**
+     * @param name The answer to the difficulty prompt that picks this profile, such as "n".
+     * @param startingGold The gold the hunter starts with.
+     * @param markdown The share of an item's price a shop pays for it.
+     * @param toughChance The chance of each new town being tough.
+     * @param noTroubleChance The chance of finding a fight, and of losing it, in a town that isn't tough.
+     * @param toughNoTroubleChance The chance of finding a fight, and of losing it, in a tough town.
+     * @param breakChance The chance of an item breaking each time it is used to cross a terrain.
+     * @param digChance The chance of digging up gold.
+     * @param maxDigGold The most gold that can be dug up at once.
+     * @param samurai Whether shops sell swords.
+     */
+    public DifficultyProfile(String name, int startingGold, double markdown, double toughChance, double noTroubleChance,
+                             double toughNoTroubleChance, double breakChance, double digChance, int maxDigGold,
+                             boolean samurai) {
+        this.name = name;
+        this.startingGold = startingGold;
+        this.markdown = markdown;
+        this.toughChance = toughChance;
+        this.noTroubleChance = noTroubleChance;
+        this.toughNoTroubleChance = toughNoTroubleChance;
+        this.breakChance = breakChance;
+        this.digChance = digChance;
+        this.maxDigGold = maxDigGold;
+        this.samurai = samurai;
+    }
+
+    /**
+     * @param choice The answer to the difficulty prompt.
+     * @return The difficulty it picks; anything that isn't "e", "h" or "s" picks NORMAL.
+     */
+    public static DifficultyProfile forChoice(String choice) {
+        if (choice.equals("e")) {
+            return EASY;
+        } else if (choice.equals("h")) {
+            return HARD;
+        } else if (choice.equals("s")) {
+            return SAMURAI;
+        }
+        return NORMAL;
+    }
+
+    public DifficultyProfile withStartingGold(int startingGold) {
+        return new DifficultyProfile(name, startingGold, markdown, toughChance, noTroubleChance, toughNoTroubleChance,
+                breakChance, digChance, maxDigGold, samurai);
+    }
+
+    public DifficultyProfile withToughChance(double toughChance) {
+        return new DifficultyProfile(name, startingGold, markdown, toughChance, noTroubleChance, toughNoTroubleChance,
+                breakChance, digChance, maxDigGold, samurai);
+    }
+
+    public DifficultyProfile withNoTroubleChance(double noTroubleChance, double toughNoTroubleChance) {
+        return new DifficultyProfile(name, startingGold, markdown, toughChance, noTroubleChance, toughNoTroubleChance,
+                breakChance, digChance, maxDigGold, samurai);
+    }
+
+    public DifficultyProfile withBreakChance(double breakChance) {
+        return new DifficultyProfile(name, startingGold, markdown, toughChance, noTroubleChance, toughNoTroubleChance,
+                breakChance, digChance, maxDigGold, samurai);
+    }
+
+    /**
+     * Writes the profile to a snapshot, so a game saved with a profile of its own comes back with it.
+     *
+     * @param out The buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer out) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.put((byte) bytes.length);
+        out.put(bytes);
+        out.putInt(startingGold);
+        out.putDouble(markdown);
+        out.putDouble(toughChance);
+        out.putDouble(noTroubleChance);
+        out.putDouble(toughNoTroubleChance);
+        out.putDouble(breakChance);
+        out.putDouble(digChance);
+        out.putInt(maxDigGold);
+        out.put((byte) (samurai ? 1 : 0));
+    }
+
+    /**
+     * Reads a profile written by writeSnapshot().
+     *
+     * @param in The buffer to read from.
+     * @return The profile.
+     */
+    static DifficultyProfile readSnapshot(ByteBuffer in) {
+        byte[] bytes = new byte[in.get() & 0xff];
+        in.get(bytes);
+        return new DifficultyProfile(new String(bytes, StandardCharsets.UTF_8), in.getInt(), in.getDouble(),
+                in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getInt(), in.get() != 0);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStartingGold() {
+        return startingGold;
+    }
+
+    public double getMarkdown() {
+        return markdown;
+    }
+
+    public double getToughChance() {
+        return toughChance;
+    }
+
+    /**
+     * @param tough Whether the town is tough.
+     * @return The chance of finding a fight in the town, which is also the chance of losing it.
+     */
+    public double getNoTroubleChance(boolean tough) {
+        return tough ? toughNoTroubleChance : noTroubleChance;
+    }
+
+    public double getBreakChance() {
+        return breakChance;
+    }
+
+    public double getDigChance() {
+        return digChance;
+    }
+
+    public int getMaxDigGold() {
+        return maxDigGold;
+    }
+
+    public boolean isSamurai() {
+        return samurai;
+    }
+
+    public String toString() {
+        return String.format("%s: gold %d, markdown %.2f, tough %.2f, trouble %.2f/%.2f, break %.2f, dig %.2f x %d%s",
+                name, startingGold, markdown, toughChance, noTroubleChance, toughNoTroubleChance, breakChance,
+                digChance, maxDigGold, samurai ? ", swords" : "");
+    }
+}
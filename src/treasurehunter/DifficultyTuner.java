@@ -0,0 +1,270 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searches for DifficultyProfiles that give a target win rate, by playing simulated games with each of them.<p>
+ * Four numbers are tuned: the starting gold, the chance of a town being tough, how likely fights are (both trouble
+ * chances of the base difficulty are scaled together) and the chance of an item breaking. The search starts with a
+ * grid of GRID_POINTS values of each, then makes a few rounds of refinement, each looking at every neighbor of the
+ * best profiles so far at half the previous spacing. A profile within TOLERANCE of the target counts as a hit, and
+ * of the hits the one closest to the base difficulty wins, so the game changes as little as it can.<p>
+ * Work is reused across profiles in three ways:<p>
+ * - every profile plays the same games (game i always has seed GameRandom.seedFor(seed, i)), so neighboring
+ *   profiles differ only by their settings and not by luck, and fewer games are needed to tell them apart;<p>
+ * - each profile starts with MIN_GAMES games, and only profiles that might still be within reach of the target
+ *   are played further, doubling each time up to MAX_GAMES;<p>
+ * - every profile's results are kept by its place on the grid, so a profile that comes up again in refinement,
+ *   or needs more games, carries on from the games it has already played.<p>
+ * Profiles are played in parallel on the common fork-join pool.<p>
+ * The digging odds aren't tuned, since dug gold is only reported and never changes how a game ends.<p>
+ * Usage: java DifficultyTuner [easyTarget] [normalTarget] [hardTarget] [maxTurns] [seed]
+ */
+
+public class DifficultyTuner {
+    // constants
+    private static final int KNOBS = 4;
+    private static final int GRID_POINTS = 5;
+    private static final int ROUNDS = 3;
+    private static final int UNITS = (GRID_POINTS - 1) << ROUNDS; // grid positions run from 0 to UNITS on each knob
+    private static final double[] MIN = {5, 0, 0.5, 0};
+    private static final double[] MAX = {45, 1, 1.5, 1};
+    private static final String[] KNOB_NAMES = {"gold", "tough", "trouble", "break"};
+    private static final double MAX_TROUBLE_CHANCE = 0.95;
+    private static final int MIN_GAMES = 256;
+    private static final int MAX_GAMES = 8192;
+    private static final double TOLERANCE = 0.01;
+    private static final double REACH = 3; // standard errors
+    private static final int KEEP = 4;
+
+    // instance variables
+    private final DifficultyProfile base;
+    private final double target;
+    private final int maxTurns;
+    private final long seed;
+    private final Map<Long, Estimate> estimates;
+    private final AtomicLong gamesPlayed;
+
+    /**
+     * @param base The difficulty to start from; its markdown, dig odds and swords are kept as they are.
+     * @param target The win rate to aim for, from 0 to 1.
+     * @param maxTurns The most turns a game may last; games that run out of turns count as not won.
+     * @param seed The seed every profile's games are played from.
+     */
+    public DifficultyTuner(DifficultyProfile base, double target, int maxTurns, long seed) {
+        this.base = base;
+        this.target = target;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        estimates = new ConcurrentHashMap<>();
+        gamesPlayed = new AtomicLong();
+    }
+
+    /**
+     * The games played so far with one profile, which is a point on the grid.
+     */
+    public class Estimate {
+        private final int[] point;
+        private final DifficultyProfile profile;
+        private final BatchRunner runner;
+        private long games;
+        private long wins;
+
+        private Estimate(int[] point) {
+            this.point = point;
+            profile = profileAt(point);
+            runner = new BatchRunner(random -> new RandomStrategy(base.getName(), random), maxTurns, seed);
+            runner.setProfile(profile);
+            games = 0;
+            wins = 0;
+        }
+
+        // plays games up to the given total, carrying on from the ones already played
+        private void playTo(long total) {
+            if (total > games) {
+                long[] tally = runner.run(games, total);
+                wins += tally[Outcome.WON.ordinal()];
+                gamesPlayed.addAndGet(total - games);
+                games = total;
+            }
+        }
+
+        public DifficultyProfile getProfile() {
+            return profile;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double getError() {
+            return Math.abs(getWinRate() - target);
+        }
+
+        // whether more games could show the profile to be a hit
+        private boolean inReach() {
+            double p = getWinRate();
+            double standardError = Math.sqrt(Math.max(p * (1 - p), 0.5 / games) / games);
+            return games < MAX_GAMES && getError() - REACH * standardError < TOLERANCE;
+        }
+
+        // how far the profile is from the base difficulty, with every knob's range counting the same
+        private double distanceFromBase() {
+            int[] home = pointOf(base);
+            double sum = 0;
+            for (int k = 0; k < KNOBS; k++) {
+                double d = (double) (point[k] - home[k]) / UNITS;
+                sum += d * d;
+            }
+            return Math.sqrt(sum);
+        }
+
+        public String toString() {
+            return String.format("%.2f%% won of %d games, %s", 100 * getWinRate(), games, profile);
+        }
+    }
+
+    /**
+     * Runs the grid search and the refinement rounds.
+     *
+     * @return The best profile found, with its results.
+     */
+    public Estimate tune() {
+        int step = UNITS / (GRID_POINTS - 1);
+        List<int[]> points = new ArrayList<>();
+        addGrid(points, new int[KNOBS], 0, step);
+        List<Estimate> ranked = evaluate(points);
+        for (int round = 0; round < ROUNDS; round++) {
+            step /= 2;
+            points.clear();
+            for (Estimate best : ranked.subList(0, Math.min(KEEP, ranked.size()))) {
+                addNeighbors(points, best.point, best.point.clone(), 0, step);
+            }
+            // earlier profiles keep their place in the ranking, since their results are already cached
+            points.addAll(ranked.stream().map(estimate -> estimate.point).toList());
+            ranked = evaluate(points);
+        }
+        return ranked.get(0);
+    }
+
+    /**
+     * @return How many different profiles have been played so far.
+     */
+    public int getProfileCount() {
+        return estimates.size();
+    }
+
+    /**
+     * @return How many games have been played so far, over every profile.
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    // plays each profile until it is either out of reach of the target or has MAX_GAMES games, best first
+    private List<Estimate> evaluate(List<int[]> points) {
+        Map<Long, Estimate> batch = new LinkedHashMap<>();
+        for (int[] point : points) {
+            batch.computeIfAbsent(keyOf(point), key -> estimates.computeIfAbsent(key, k -> new Estimate(point)));
+        }
+        List<Estimate> playing = new ArrayList<>(batch.values());
+        long total = MIN_GAMES;
+        while (!playing.isEmpty()) {
+            long games = total;
+            playing.parallelStream().forEach(estimate -> estimate.playTo(games));
+            playing.removeIf(estimate -> !estimate.inReach());
+            total *= 2;
+        }
+        List<Estimate> ranked = new ArrayList<>(batch.values());
+        ranked.sort(Comparator.comparingDouble((Estimate estimate) -> Math.max(estimate.getError(), TOLERANCE))
+                .thenComparingDouble(Estimate::distanceFromBase));
+        return ranked;
+    }
+
+    private static void addGrid(List<int[]> points, int[] point, int knob, int step) {
+        if (knob == KNOBS) {
+            points.add(point.clone());
+            return;
+        }
+        for (int unit = 0; unit <= UNITS; unit += step) {
+            point[knob] = unit;
+            addGrid(points, point, knob + 1, step);
+        }
+    }
+
+    private static void addNeighbors(List<int[]> points, int[] center, int[] point, int knob, int step) {
+        if (knob == KNOBS) {
+            points.add(point.clone());
+            return;
+        }
+        for (int unit = center[knob] - step; unit <= center[knob] + step; unit += step) {
+            if (unit >= 0 && unit <= UNITS) {
+                point[knob] = unit;
+                addNeighbors(points, center, point, knob + 1, step);
+            }
+        }
+    }
+
+    private static long keyOf(int[] point) {
+        long key = 0;
+        for (int unit : point) {
+            key = key * (UNITS + 1) + unit;
+        }
+        return key;
+    }
+
+    private static double valueAt(int[] point, int knob) {
+        return MIN[knob] + (MAX[knob] - MIN[knob]) * point[knob] / UNITS;
+    }
+
+    private DifficultyProfile profileAt(int[] point) {
+        double trouble = valueAt(point, 2);
+        return base.withStartingGold((int) Math.round(valueAt(point, 0)))
+                .withToughChance(valueAt(point, 1))
+                .withNoTroubleChance(Math.min(MAX_TROUBLE_CHANCE, base.getNoTroubleChance(false) * trouble),
+                        Math.min(MAX_TROUBLE_CHANCE, base.getNoTroubleChance(true) * trouble))
+                .withBreakChance(valueAt(point, 3));
+    }
+
+    // the nearest grid point to a profile, for measuring how far other profiles are from it
+    private static int[] pointOf(DifficultyProfile profile) {
+        double[] values = {profile.getStartingGold(), profile.getToughChance(), 1, profile.getBreakChance()};
+        int[] point = new int[KNOBS];
+        for (int k = 0; k < KNOBS; k++) {
+            double unit = (values[k] - MIN[k]) / (MAX[k] - MIN[k]) * UNITS;
+            point[k] = (int) Math.max(0, Math.min(UNITS, Math.round(unit)));
+        }
+        return point;
+    }
+
+    public static void main(String[] args) {
+        double[] targets = {
+                args.length > 0 ? Double.parseDouble(args[0]) : 0.50,
+                args.length > 1 ? Double.parseDouble(args[1]) : 0.25,
+                args.length > 2 ? Double.parseDouble(args[2]) : 0.10};
+        int maxTurns = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        DifficultyProfile[] bases = {DifficultyProfile.EASY, DifficultyProfile.NORMAL, DifficultyProfile.HARD};
+
+        System.out.printf("seed %d, tuning %s from %d-point grids with %d rounds of refinement%n",
+                seed, String.join("/", KNOB_NAMES), GRID_POINTS, ROUNDS);
+        for (int i = 0; i < bases.length; i++) {
+            long start = System.nanoTime();
+            DifficultyTuner tuner = new DifficultyTuner(bases[i], targets[i], maxTurns, seed);
+            Estimate best = tuner.tune();
+            System.out.printf("%s: target %.2f%%, %d profiles, %d games in %.1f s%n  %s%n", bases[i].getName(),
+                    100 * targets[i], tuner.getProfileCount(), tuner.getGamesPlayed(),
+                    (System.nanoTime() - start) / 1e9, best);
+        }
+    }
+}
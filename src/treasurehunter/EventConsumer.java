@@ -0,0 +1,16 @@
+package treasurehunter;
+
+/**
+ * Something that reacts to the events published on an EventRing.
+ */
+
+public interface EventConsumer {
+    /**
+     * Handles one event.
+     *
+     * @param event The event; it is reused for later events, so copy out anything to keep.
+     * @param sequence The event's position in the ring's stream, starting at 0.
+     * @param endOfBatch true if this is the last event available right now.
+     */
+    void onEvent(GameEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,28 @@
+package treasurehunter;
+
+import java.io.PrintStream;
+
+/**
+ * Writes one line per game event to a stream, meant to be run on a thread of its own.
+ */
+
+public class EventLog implements EventConsumer {
+    // instance variables
+    private final PrintStream out;
+
+    /**
+     * @param out Where the log lines are written.
+     */
+    public EventLog(PrintStream out) {
+        this.out = out;
+    }
+
+    public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+        out.print(sequence);
+        out.print(' ');
+        out.println(event);
+        if (endOfBatch) {
+            out.flush();
+        }
+    }
+}
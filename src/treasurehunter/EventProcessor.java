@@ -0,0 +1,73 @@
+package treasurehunter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds the events on an EventRing to one consumer, remembering how far it has read.<p>
+ * Either call drain() from whatever thread owns the consumer, or start the processor on a thread
+ * of its own, where it drains until halt() is called.
+ */
+
+public class EventProcessor implements Runnable {
+    // constants
+    private static final long IDLE_NANOS = 100_000;
+
+    // instance variables
+    private final EventRing ring;
+    private final EventConsumer consumer;
+    private final AtomicLong sequence; // the last sequence handed to the consumer
+    private volatile boolean running;
+
+    EventProcessor(EventRing ring, EventConsumer consumer, long start) {
+        this.ring = ring;
+        this.consumer = consumer;
+        sequence = new AtomicLong(start);
+        running = true;
+    }
+
+    /**
+     * Hands every event published so far to the consumer.
+     *
+     * @return The number of events handled.
+     */
+    public int drain() {
+        long available = ring.getCursor();
+        long next = sequence.get() + 1;
+        if (next > available) {
+            return 0;
+        }
+        for (long s = next; s <= available; s++) {
+            consumer.onEvent(ring.get(s), s, s == available);
+        }
+        sequence.lazySet(available); // lets the producer reuse the slots
+        return (int) (available - next + 1);
+    }
+
+    /**
+     * Drains until halt() is called, then drains once more.
+     */
+    public void run() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Asks a processor running on its own thread to finish.
+     */
+    public void halt() {
+        running = false;
+    }
+
+    public EventConsumer getConsumer() {
+        return consumer;
+    }
+
+    long getSequence() {
+        return sequence.get();
+    }
+}
@@ -0,0 +1,109 @@
+package treasurehunter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A preallocated ring of GameEvents with one producer (the game) and any number of consumers,
+ * in the style of the LMAX Disruptor.<p>
+ * The game fills the next slot and publishes its sequence number; each consumer has its own
+ * EventProcessor that tracks how far it has read, and can be drained on the game's thread or run
+ * on a thread of its own. The producer never overwrites a slot that some consumer hasn't read yet,
+ * so every consumer must keep draining or the game will wait for it. Publishing does not allocate.
+ */
+
+public class EventRing {
+    // instance variables
+    private final GameEvent[] slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1); // the last sequence published
+    private long nextSequence;   // only touched by the producer
+    private long gatingSequence; // cached minimum of the consumers' sequences
+    private volatile EventProcessor[] processors = new EventProcessor[0];
+
+    /**
+     * @param size The number of slots; must be a power of two.
+     */
+    public EventRing(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("ring size must be a power of two: " + size);
+        }
+        slots = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new GameEvent();
+        }
+        mask = size - 1;
+        nextSequence = 0;
+        gatingSequence = -1;
+    }
+
+    /**
+     * Adds a consumer. It sees every event published from now on.
+     *
+     * @param consumer The consumer.
+     * @return The processor that feeds the consumer; call drain() on it, or run it on its own thread.
+     */
+    public synchronized EventProcessor addConsumer(EventConsumer consumer) {
+        EventProcessor processor = new EventProcessor(this, consumer, cursor.get());
+        EventProcessor[] more = Arrays.copyOf(processors, processors.length + 1);
+        more[more.length - 1] = processor;
+        processors = more;
+        return processor;
+    }
+
+    /**
+     * Stops feeding a consumer, so the producer no longer waits for it.
+     *
+     * @param processor The processor returned by addConsumer().
+     */
+    public synchronized void removeConsumer(EventProcessor processor) {
+        EventProcessor[] fewer = new EventProcessor[processors.length];
+        int count = 0;
+        for (EventProcessor p : processors) {
+            if (p != processor) {
+                fewer[count++] = p;
+            }
+        }
+        processors = Arrays.copyOf(fewer, count);
+    }
+
+    /**
+     * Publishes an event, waiting first if the slowest consumer is a whole ring behind.
+     * Must only be called from the game's thread.
+     *
+     * @param type What happened.
+     * @param amount The gold involved, if any.
+     * @param item The item involved, if any.
+     * @param name The name of the terrain or treasure involved, if any.
+     * @param duplicate Whether a treasure found was already collected.
+     */
+    public void publish(EventType type, int amount, Item item, String name, boolean duplicate) {
+        long sequence = nextSequence++;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > gatingSequence) {
+            long minimum = minimumSequence(sequence - 1);
+            while (wrapPoint > minimum) {
+                Thread.onSpinWait();
+                minimum = minimumSequence(sequence - 1);
+            }
+            gatingSequence = minimum;
+        }
+        slots[(int) sequence & mask].set(type, amount, item, name, duplicate);
+        cursor.lazySet(sequence);
+    }
+
+    long getCursor() {
+        return cursor.get();
+    }
+
+    GameEvent get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    private long minimumSequence(long minimum) {
+        for (EventProcessor processor : processors) {
+            minimum = Math.min(minimum, processor.getSequence());
+        }
+        return minimum;
+    }
+}
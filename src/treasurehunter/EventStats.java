@@ -0,0 +1,37 @@
+package treasurehunter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts game events by type and totals the gold involved, for analytics.<p>
+ * It can be drained on any one thread; the totals can be read from any thread.
+ */
+
+public class EventStats implements EventConsumer {
+    // instance variables
+    private final AtomicLongArray counts = new AtomicLongArray(EventType.values().length);
+    private final AtomicLongArray gold = new AtomicLongArray(EventType.values().length);
+
+    public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+        int type = event.getType().ordinal();
+        // only one thread writes, so a plain read-then-write is enough
+        counts.lazySet(type, counts.get(type) + 1);
+        gold.lazySet(type, gold.get(type) + event.getAmount());
+    }
+
+    /**
+     * @param type The kind of event.
+     * @return How many events of that kind have been seen.
+     */
+    public long getCount(EventType type) {
+        return counts.get(type.ordinal());
+    }
+
+    /**
+     * @param type The kind of event.
+     * @return The total gold amount of the events of that kind.
+     */
+    public long getGold(EventType type) {
+        return gold.get(type.ordinal());
+    }
+}
@@ -0,0 +1,16 @@
+package treasurehunter;
+
+/**
+ * The kinds of things that can happen in a game, as published on the EventRing.
+ */
+
+public enum EventType {
+    BRAWL_WON,       // amount: gold received
+    BRAWL_LOST,      // amount: gold paid
+    TERRAIN_CROSSED, // item: the item used; name: the terrain
+    ITEM_BROKE,      // item: the item lost crossing the terrain
+    TREASURE_FOUND,  // item: the treasure, or null for dust; name: the treasure; duplicate: already collected
+    GOLD_DUG,        // amount: gold dug up, 0 for only dirt
+    PURCHASE,        // name: the item bought; item: the same, if it is a standard Item; amount: gold paid
+    SALE             // name: the item sold; item: the same, if it is a standard Item; amount: gold received
+}
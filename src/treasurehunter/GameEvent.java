@@ -0,0 +1,52 @@
+package treasurehunter;
+
+/**
+ * One slot of the EventRing.<p>
+ * Slots are created once with the ring and overwritten for every event published, so publishing never allocates.
+ * A consumer must copy out anything it wants to keep before it returns from onEvent().
+ * What each field means depends on the EventType.
+ */
+
+public class GameEvent {
+    // instance variables
+    private EventType type;
+    private int amount;
+    private Item item;
+    private String name;
+    private boolean duplicate;
+
+    void set(EventType type, int amount, Item item, String name, boolean duplicate) {
+        this.type = type;
+        this.amount = amount;
+        this.item = item;
+        this.name = name;
+        this.duplicate = duplicate;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    /**
+     * @return A one-line description of the event, for logs.
+     */
+    public String toString() {
+        return type + " amount=" + amount + " item=" + item + " name=" + name + " duplicate=" + duplicate;
+    }
+}
@@ -0,0 +1,319 @@
+package treasurehunter;
+
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times what players do, for any number of games at once, and publishes it as a JMX MBean.<p>
+ * Every turn is counted by its Action. A turn is timed in three parts: drawing the menu (render), waiting for
+ * the player's lines, the menu choice and any questions the action asks (input), and everything else the action
+ * does (logic). Games that end are counted by difficulty and Outcome.<p>
+ * Each game records through a Recorder of its own, which keeps its counts in a plain array and only adds them
+ * to the shared LongAdders when it times a turn or the game ends, so counting a turn costs next to nothing.
+ * Timing costs a few calls to System.nanoTime(), which is nothing next to a person's turn but not next to a
+ * Strategy's, so a headless game can time just one turn in sampleEvery. The histograms are striped by thread
+ * and nothing allocates once a game has started.<p>
+ * register() publishes the metrics under OBJECT_NAME, where jconsole or MetricsClient can read them.
+ */
+
+public class GameMetrics implements GameMetricsMXBean {
+    // constants
+    public static final String OBJECT_NAME = "treasurehunter:type=GameMetrics";
+    private static final String[] DIFFICULTIES = {"e", "n", "h", "s"};
+    private static final int MAX_STRIPES = 8;
+
+    // instance variables
+    private final int sampleMask;
+    private final LongAdder[] counts;           // by Action ordinal
+    private final LongAdder[] timedCounts;      // by Action ordinal
+    private final LatencyHistogram[] render;    // by Action ordinal
+    private final LatencyHistogram[] logic;     // by Action ordinal
+    private final LatencyHistogram[] input;     // by Action ordinal
+    private final LongAdder[] outcomes;         // by difficulty, then Outcome ordinal
+
+    /**
+     * @param sampleEvery Time one turn in this many, rounded up to a power of two; 1 times every turn.
+     */
+    public GameMetrics(int sampleEvery) {
+        sampleMask = sampleEvery <= 1 ? 0 : (Integer.highestOneBit(sampleEvery - 1) << 1) - 1;
+        int actions = Action.values().length;
+        int stripes = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors());
+        counts = new LongAdder[actions];
+        timedCounts = new LongAdder[actions];
+        render = new LatencyHistogram[actions];
+        logic = new LatencyHistogram[actions];
+        input = new LatencyHistogram[actions];
+        for (int i = 0; i < actions; i++) {
+            counts[i] = new LongAdder();
+            timedCounts[i] = new LongAdder();
+            render[i] = new LatencyHistogram(stripes);
+            logic[i] = new LatencyHistogram(stripes);
+            input[i] = new LatencyHistogram(stripes);
+        }
+        outcomes = new LongAdder[DIFFICULTIES.length * Outcome.values().length];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts and times the turns of one game. It belongs to that game's thread and isn't thread-safe.
+     */
+    public class Recorder {
+        private final long[] pendingCounts; // counted since the last flush, by Action ordinal
+        private int turn;
+        private boolean timed;
+        private long turnStart;
+        private long renderEnd;
+        private long inputNanos;
+
+        private Recorder() {
+            pendingCounts = new long[Action.values().length];
+            // start each game somewhere different, so it isn't always the same turns that are timed
+            turn = ThreadLocalRandom.current().nextInt();
+            timed = false;
+        }
+
+        /**
+         * Call before the menu is drawn.
+         */
+        public void startTurn() {
+            timed = (++turn & sampleMask) == 0;
+            if (timed) {
+                inputNanos = 0;
+                turnStart = System.nanoTime();
+            }
+        }
+
+        /**
+         * Call once the menu has been drawn, just before the choice is read.
+         */
+        public void rendered() {
+            if (timed) {
+                renderEnd = System.nanoTime();
+            }
+        }
+
+        /**
+         * Call once the action is done.
+         *
+         * @param action The action the turn took.
+         */
+        public void endTurn(Action action) {
+            pendingCounts[action.ordinal()]++;
+            if (timed) {
+                long end = System.nanoTime();
+                int i = action.ordinal();
+                timedCounts[i].increment();
+                render[i].record(renderEnd - turnStart);
+                input[i].record(inputNanos);
+                logic[i].record(end - renderEnd - inputNanos);
+                timed = false;
+                flush();
+            }
+        }
+
+        /**
+         * Call once the game is over.
+         *
+         * @param difficulty The game's difficulty, "e", "n", "h" or "s".
+         * @param outcome How it ended.
+         */
+        public void endGame(String difficulty, Outcome outcome) {
+            flush();
+            int row = 1;
+            for (int i = 0; i < DIFFICULTIES.length; i++) {
+                if (DIFFICULTIES[i].equals(difficulty)) {
+                    row = i;
+                }
+            }
+            outcomes[row * Outcome.values().length + outcome.ordinal()].increment();
+        }
+
+        /**
+         * @param source The game's input.
+         * @return The same input, timing how long each line takes to arrive during a timed turn.
+         */
+        public InputSource wrap(InputSource source) {
+            return prompt -> {
+                if (!timed) {
+                    return source.nextLine(prompt);
+                }
+                long start = System.nanoTime();
+                try {
+                    return source.nextLine(prompt);
+                } finally {
+                    inputNanos += System.nanoTime() - start;
+                }
+            };
+        }
+
+        private void flush() {
+            for (int i = 0; i < pendingCounts.length; i++) {
+                if (pendingCounts[i] != 0) {
+                    counts[i].add(pendingCounts[i]);
+                    pendingCounts[i] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * The counts and timings of one Action, as published over JMX. Times are in nanoseconds.
+     */
+    public static class ActionStats {
+        private final String action;
+        private final long count;
+        private final long timedCount;
+        private final long renderP50;
+        private final long renderP99;
+        private final long logicP50;
+        private final long logicP99;
+        private final long logicP999;
+        private final long inputP50;
+        private final long inputP99;
+
+        @ConstructorProperties({"action", "count", "timedCount", "renderP50", "renderP99",
+                "logicP50", "logicP99", "logicP999", "inputP50", "inputP99"})
+        public ActionStats(String action, long count, long timedCount, long renderP50, long renderP99,
+                           long logicP50, long logicP99, long logicP999, long inputP50, long inputP99) {
+            this.action = action;
+            this.count = count;
+            this.timedCount = timedCount;
+            this.renderP50 = renderP50;
+            this.renderP99 = renderP99;
+            this.logicP50 = logicP50;
+            this.logicP99 = logicP99;
+            this.logicP999 = logicP999;
+            this.inputP50 = inputP50;
+            this.inputP99 = inputP99;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return How many of the turns were timed; the percentiles come from these.
+         */
+        public long getTimedCount() {
+            return timedCount;
+        }
+
+        public long getRenderP50() {
+            return renderP50;
+        }
+
+        public long getRenderP99() {
+            return renderP99;
+        }
+
+        public long getLogicP50() {
+            return logicP50;
+        }
+
+        public long getLogicP99() {
+            return logicP99;
+        }
+
+        public long getLogicP999() {
+            return logicP999;
+        }
+
+        public long getInputP50() {
+            return inputP50;
+        }
+
+        public long getInputP99() {
+            return inputP99;
+        }
+    }
+
+    /**
+     * @return A recorder for a new game.
+     */
+    public Recorder newRecorder() {
+        return new Recorder();
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server under OBJECT_NAME.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("couldn't register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Takes the metrics off the platform MBean server.
+     */
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("couldn't unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    public long getTurns() {
+        long turns = 0;
+        for (LongAdder count : counts) {
+            turns += count.sum();
+        }
+        return turns;
+    }
+
+    public List<ActionStats> getActions() {
+        List<ActionStats> actions = new ArrayList<ActionStats>();
+        for (Action action : Action.values()) {
+            int i = action.ordinal();
+            actions.add(new ActionStats(action.name(), counts[i].sum(), timedCounts[i].sum(),
+                    render[i].getPercentile(50), render[i].getPercentile(99),
+                    logic[i].getPercentile(50), logic[i].getPercentile(99), logic[i].getPercentile(99.9),
+                    input[i].getPercentile(50), input[i].getPercentile(99)));
+        }
+        return actions;
+    }
+
+    public Map<String, Long> getOutcomes() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (int row = 0; row < DIFFICULTIES.length; row++) {
+            for (Outcome outcome : Outcome.values()) {
+                result.put(DIFFICULTIES[row] + " " + outcome, outcomes[row * Outcome.values().length + outcome.ordinal()].sum());
+            }
+        }
+        return result;
+    }
+
+    public int getSampleEvery() {
+        return sampleMask + 1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            timedCounts[i].reset();
+            render[i].reset();
+            logic[i].reset();
+            input[i].reset();
+        }
+        for (LongAdder outcome : outcomes) {
+            outcome.reset();
+        }
+    }
+}
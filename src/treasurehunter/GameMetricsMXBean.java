@@ -0,0 +1,35 @@
+package treasurehunter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What GameMetrics publishes over JMX, as seen in jconsole or read by MetricsClient.
+ */
+
+public interface GameMetricsMXBean {
+    /**
+     * @return How many turns have been counted, over every game.
+     */
+    long getTurns();
+
+    /**
+     * @return Counts and timings for each menu action, in Action order.
+     */
+    List<GameMetrics.ActionStats> getActions();
+
+    /**
+     * @return How many games ended each way, keyed by difficulty and Outcome, such as "n WON".
+     */
+    Map<String, Long> getOutcomes();
+
+    /**
+     * @return One turn in how many is timed.
+     */
+    int getSampleEvery();
+
+    /**
+     * Sets every count and timing back to zero.
+     */
+    void reset();
+}
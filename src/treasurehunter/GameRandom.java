@@ -0,0 +1,137 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The random number source for one game.<p>
+ * It uses the same SplitMix64 algorithm as java.util.SplittableRandom: it is seeded, so a game can be
+ * replayed exactly from its seed, and it is not shared between threads, so games running side by side
+ * never fight over it the way they do over Math.random(). A game can split() off an independent
+ * generator for anything that should not disturb its own sequence of rolls (such as a Strategy).
+ */
+
+public class GameRandom {
+    // constants
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    // instance variables
+    private long seed;
+    private long gamma;
+
+    /**
+     * Creates a generator whose rolls are completely determined by the seed.
+     *
+     * @param seed The seed.
+     */
+    public GameRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a generator in an exact state, such as one recorded by getSeed() and getGamma().
+     *
+     * @param seed The current seed.
+     * @param gamma The step added to the seed for each roll; must be odd.
+     */
+    GameRandom(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Gives the seed of the index-th game of a batch, so any one game can be replayed on its own.
+     *
+     * @param baseSeed The seed of the whole batch.
+     * @param index The game's position in the batch.
+     * @return The game's seed.
+     */
+    public static long seedFor(long baseSeed, long index) {
+        return mix64(baseSeed + index * GOLDEN_GAMMA);
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    long getGamma() {
+        return gamma;
+    }
+
+    /**
+     * Writes the generator's exact state, so a saved game carries on with the same rolls.
+     *
+     * @param out The buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(gamma);
+    }
+
+    /**
+     * Puts the generator back into a state written by writeSnapshot().
+     *
+     * @param in The buffer to read from.
+     */
+    void readSnapshot(ByteBuffer in) {
+        seed = in.getLong();
+        gamma = in.getLong() | 1L; // gamma must be odd
+    }
+
+    /**
+     * @return A new generator that shares no rolls with this one.
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * @return A uniformly random double in [0, 1), like Math.random().
+     */
+    public double nextDouble() {
+        return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @param bound The upper bound (exclusive); must be positive.
+     * @return A uniformly random int in [0, bound).
+     */
+    public int nextInt(int bound) {
+        int r = mix32(nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        // reject the few values that would make the result biased
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1) {
+        }
+        return r;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L; // gamma must be odd
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,90 @@
+package treasurehunter;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * One game hosted by a SessionHost, with its own input, output and random number source.<p>
+ * Nothing in the game is static, so any number of sessions can run side by side in one JVM.
+ */
+
+public class GameSession implements Runnable {
+    // instance variables
+    private final long id;
+    private final TreasureHunter game;
+    private final InputSource input;
+    private final OutputSink output;
+    private final CountDownLatch finished;
+    private volatile boolean closed;
+
+    /**
+     * @param id The session's number within its host.
+     * @param input Where the player's lines come from.
+     * @param output Where the game's text goes.
+     * @param random The session's random number source.
+     */
+    public GameSession(long id, InputSource input, OutputSink output, GameRandom random) {
+        this.id = id;
+        this.input = input;
+        this.output = output;
+        // a closed session stops at its next prompt, whatever its input
+        game = new TreasureHunter(prompt -> {
+            if (closed) {
+                throw new CancellationException("session closed before asking for " + prompt);
+            }
+            return input.nextLine(prompt);
+        }, output, random);
+        finished = new CountDownLatch(1);
+        closed = false;
+    }
+
+    /**
+     * Plays the game on the calling thread until it ends or the session is closed.
+     */
+    public void run() {
+        try {
+            if (closed) {
+                return; // closed before it started
+            }
+            game.play();
+            output.flush();
+        } catch (CancellationException e) {
+            // closed by the host; the game is simply abandoned
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Stops the game at its next prompt, or straight away if it is waiting on a SessionInput.<p>
+     * The game's thread is never interrupted: it may be writing to the leaderboard, and an interrupt would close
+     * the leaderboard's FileChannel for every session in the JVM.
+     */
+    public void close() {
+        closed = true;
+        if (input instanceof SessionInput) {
+            ((SessionInput) input).close();
+        }
+    }
+
+    /**
+     * Waits until the game is over or the session has been closed.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public void await() throws InterruptedException {
+        finished.await();
+    }
+
+    public boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public TreasureHunter getGame() {
+        return game;
+    }
+}
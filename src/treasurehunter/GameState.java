@@ -0,0 +1,242 @@
+package treasurehunter;
+
+/**
+ * A compact copy of everything that matters in a game in progress: the hunter's gold, kit and treasures and the
+ * town they are in, along with the difficulty's prices and odds.<p>
+ * It plays by the same rules as Town, Shop and Hunter, with the same odds, but without any text, so a copy can be
+ * played forward thousands of times a second to see how a move is likely to turn out (see MctsBot). The odds
+ * come from the game's DifficultyProfile.
+ * Moves are numbered: MOVE, TROUBLE, HUNT and DIG for the menu choices m, l, h and d, and BUY + ordinal or
+ * SELL + ordinal for trading an Item at the shop.<p>
+ * Exploring, digging a second time and other moves that can't change anything aren't offered, and neither is
+ * buying an item the shop doesn't list (the sword outside samurai mode).
+ */
+
+public class GameState implements Cloneable {
+    // constants
+    public static final int MOVE = 0;
+    public static final int TROUBLE = 1;
+    public static final int HUNT = 2;
+    public static final int DIG = 3;
+    public static final int BUY = 4;
+    public static final int SELL = BUY + Item.count();
+    public static final int MOVES = SELL + Item.count();
+    private static final Item[] TERRAIN_ITEMS = new Item[6];
+    private static final long WINNING_TREASURES = Item.CROWN.bit() | Item.TROPHY.bit() | Item.GEM.bit();
+
+    static {
+        for (int i = 0; i < TERRAIN_ITEMS.length; i++) {
+            TERRAIN_ITEMS[i] = Town.terrainFor(i).getItem();
+        }
+    }
+
+    // the rules, shared by every copy
+    private final int[] buyPrices;  // indexed by Item ordinal; -1 if the shop doesn't list it
+    private final int[] sellPrices; // indexed by Item ordinal
+    private final double[] breakChances; // by terrain index, with the catalog's break factors applied
+    private final DifficultyProfile profile;
+
+    // the game
+    private int gold;
+    private long kit;
+    private long treasures;
+    private int terrain;
+    private boolean tough;
+    private int treasure;
+    private boolean searched;
+    private boolean dug;
+
+    private GameState(int[] buyPrices, int[] sellPrices, double[] breakChances, DifficultyProfile profile) {
+        this.buyPrices = buyPrices;
+        this.sellPrices = sellPrices;
+        this.breakChances = breakChances;
+        this.profile = profile;
+    }
+
+    /**
+     * Takes a copy of a game in progress.
+     *
+     * @param hunter The hunter.
+     * @param town The town the hunter is in.
+     * @param profile The game's difficulty.
+     * @return The copy.
+     */
+    public static GameState of(Hunter hunter, Town town, DifficultyProfile profile) {
+        Shop shop = town.getShop();
+        int[] buyPrices = new int[Item.count()];
+        int[] sellPrices = new int[Item.count()];
+        for (int i = 0; i < buyPrices.length; i++) {
+            Item item = Item.fromIndex(i);
+            buyPrices[i] = shop.getCostOfItem(i);
+            if (item == Item.SWORD && !profile.isSamurai()) {
+                buyPrices[i] = -1;
+            }
+            sellPrices[i] = shop.getBuyBackCost(i);
+        }
+        double[] breakChances = new double[TERRAIN_ITEMS.length];
+        for (int i = 0; i < breakChances.length; i++) {
+            // the same chance as Town.checkItemBreak()
+            breakChances[i] = profile.getBreakChance() * shop.getItems().getBreakFactor(TERRAIN_ITEMS[i].id());
+        }
+        GameState state = new GameState(buyPrices, sellPrices, breakChances, profile);
+        state.gold = hunter.getHunterGold();
+        state.kit = hunter.getKitMask();
+        state.treasures = hunter.getTreasureMask();
+        state.terrain = town.getTerrainIndex();
+        state.tough = town.isToughTown();
+        state.treasure = town.getTreasureIndex();
+        state.searched = town.isSearched();
+        state.dug = town.isDug();
+        return state;
+    }
+
+    /**
+     * @return An independent copy that can be played forward without changing this one.
+     */
+    public GameState copy() {
+        try {
+            return (GameState) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lists the moves that could make a difference right now.
+     *
+     * @param out Where to put the moves; needs room for MOVES.
+     * @return How many moves were put in out.
+     */
+    public int legalMoves(int[] out) {
+        int count = 0;
+        if ((kit & TERRAIN_ITEMS[terrain].bit()) != 0) {
+            out[count++] = MOVE;
+        }
+        out[count++] = TROUBLE;
+        if (!searched) {
+            out[count++] = HUNT;
+        }
+        if (!dug && (kit & Item.SHOVEL.bit()) != 0) {
+            out[count++] = DIG;
+        }
+        for (int i = 0; i < buyPrices.length; i++) {
+            long bit = 1L << i;
+            // even a hunter with a sword, who pays nothing, has to have the gold (see Hunter.buyItem)
+            if ((kit & bit) == 0 && buyPrices[i] >= 0 && buyPrices[i] <= gold) {
+                out[count++] = BUY + i;
+            } else if ((kit & bit) != 0 && sellPrices[i] > 0) {
+                out[count++] = SELL + i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays a move, rolling the dice the same way the game does.
+     *
+     * @param move The move, which must be one of legalMoves().
+     * @param random Where the rolls come from.
+     * @return How the game ended, or null if it goes on.
+     */
+    public Outcome apply(int move, GameRandom random) {
+        if (move == MOVE) {
+            // leaveTown(), then a new Town and hunterArrives()
+            double breakChance = breakChances[terrain];
+            if (breakChance != 0 && random.nextDouble() < breakChance) {
+                kit &= ~TERRAIN_ITEMS[terrain].bit();
+            }
+            terrain = random.nextInt(6);
+            tough = random.nextDouble() < profile.getToughChance();
+            treasure = random.nextInt(4);
+            searched = false;
+            dug = false;
+        } else if (move == TROUBLE) {
+            return lookForTrouble(random);
+        } else if (move == HUNT) {
+            searched = true;
+            if (Town.TREASURES[treasure] != null) {
+                treasures |= Town.TREASURES[treasure].bit();
+                if ((treasures & WINNING_TREASURES) == WINNING_TREASURES) {
+                    return Outcome.WON;
+                }
+            }
+        } else if (move == DIG) {
+            // the gold dug up is never added to the hunter's (see Town.digForGold)
+            dug = true;
+        } else if (move < SELL) {
+            int item = move - BUY;
+            if ((kit & Item.SWORD.bit()) == 0 && item != Item.SWORD.ordinal()) {
+                gold -= buyPrices[item];
+            }
+            kit |= 1L << item;
+        } else {
+            int item = move - SELL;
+            gold += sellPrices[item];
+            kit &= ~(1L << item);
+        }
+        return null;
+    }
+
+    // the same rolls, in the same order, as Town.lookForTrouble()
+    private Outcome lookForTrouble(GameRandom random) {
+        double noTroubleChance = profile.getNoTroubleChance(tough);
+        if (random.nextDouble() > noTroubleChance) {
+            return null;
+        }
+        boolean won;
+        if ((kit & Item.SWORD.bit()) != 0) {
+            random.nextDouble();
+            won = true;
+        } else {
+            won = random.nextDouble() > noTroubleChance;
+        }
+        int goldDiff = random.nextInt(10) + 1;
+        gold += won ? goldDiff : -goldDiff;
+        return gold < 0 ? Outcome.LOST : null;
+    }
+
+    public int getGold() {
+        return gold;
+    }
+
+    /**
+     * @return How many of the three treasures have been found.
+     */
+    public int getTreasureCount() {
+        return Long.bitCount(treasures & WINNING_TREASURES);
+    }
+
+    /**
+     * Gives the menu choice a move is played with.
+     *
+     * @param move The move.
+     * @return The letter typed at the menu.
+     */
+    public static String choiceFor(int move) {
+        if (move == MOVE) {
+            return "m";
+        } else if (move == TROUBLE) {
+            return "l";
+        } else if (move == HUNT) {
+            return "h";
+        } else if (move == DIG) {
+            return "d";
+        } else if (move < SELL) {
+            return "b";
+        }
+        return "s";
+    }
+
+    /**
+     * @param move The move.
+     * @return The item a BUY or SELL move trades, or null for any other move.
+     */
+    public static Item itemFor(int move) {
+        if (move >= BUY && move < SELL) {
+            return Item.fromIndex(move - BUY);
+        } else if (move >= SELL && move < MOVES) {
+            return Item.fromIndex(move - SELL);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package treasurehunter;
+
+import java.util.function.Function;
+
+/**
+ * Plays one whole game of Treasure Hunter with no window and no keyboard.<p>
+ * Every line the game would read is answered by a Strategy, and all output is discarded.
+ * The game and its Strategy both draw from a single seed, so the same seed always plays the same game.
+ */
+
+public class HeadlessGame implements InputSource {
+    // instance variables
+    private final GameRandom random;
+    private final Strategy strategy;
+    private final TreasureHunter game;
+    private InputJournal journal;
+
+    /**
+     * @param strategies Makes the Strategy that plays the game, given a random source of its own.
+     * @param seed The seed the whole game is played from.
+     * @param maxTurns The most menu choices the game may last before it is stopped.
+     */
+    public HeadlessGame(Function<GameRandom, Strategy> strategies, long seed, int maxTurns) {
+        random = new GameRandom(seed);
+        strategy = strategies.apply(random.split());
+        game = new TreasureHunter(this, HeadlessOutput.INSTANCE, random);
+        game.setMaxTurns(maxTurns);
+        journal = null;
+    }
+
+    /**
+     * Records the game's seed and every line the Strategy supplies, so it can be replayed by JournalReplay.
+     *
+     * @param journal The journal to record to, or null to stop recording.
+     */
+    public void setJournal(InputJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Plays the game from the welcome to the end.
+     *
+     * @return How the game ended.
+     */
+    public Outcome play() {
+        if (journal != null) {
+            journal.startSession(random);
+        }
+        game.play();
+        if (journal != null) {
+            journal.endSession(game);
+        }
+        return game.getOutcome();
+    }
+
+    public TreasureHunter getGame() {
+        return game;
+    }
+
+    public String nextLine(Prompt prompt) {
+        String line = strategy.respond(prompt, game.getHunter(), game.getCurrentTown());
+        if (journal != null) {
+            journal.record(line);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,22 @@
+package treasurehunter;
+
+import java.awt.*;
+
+/**
+ * An OutputSink that discards everything it is given.<p>
+ * Used when games are played by a Strategy and nobody is watching.
+ */
+
+public class HeadlessOutput implements OutputSink {
+    // static variables
+    public static final HeadlessOutput INSTANCE = new HeadlessOutput();
+
+    private HeadlessOutput() {
+    }
+
+    public void addTextToWindow(String text, Color color) {
+    }
+
+    public void clear() {
+    }
+}
@@ -0,0 +1,75 @@
+package treasurehunter;
+
+import java.awt.*;
+
+/**
+ * The status shown above the menu every turn: the town's latest news, the hunter's gold, kit and treasures, and
+ * the town's terrain.<p>
+ * The HUD is kept as one StyledText whose runs are updated in place. Each turn it asks the hunter which of its
+ * gold, kit and treasures changed (Hunter.takeChanges()) and rebuilds only those runs, and it only asks the town
+ * for its line when the hunter is in a different town. A turn where nothing changed sends the same StyledText
+ * again without building any strings.
+ */
+
+public class Hud {
+    // constants
+    private static final int NEWS = 0;
+    private static final int NAME = 3;
+    private static final int GOLD = 4;
+    private static final int KIT = 5;
+    private static final int TREASURES = 6;
+    private static final int TOWN = 7;
+
+    // instance variables
+    private final StyledText text;
+    private Hunter hunter;
+    private Town town;
+
+    public Hud() {
+        text = new StyledText()
+                .append("", Colors.salmon)
+                .append("\n", Colors.salmon)
+                .append("***\n", Color.darkGray)
+                .append("", Colors.pastelBlue)
+                .append("", Colors.pastelBlue)
+                .append("", Colors.pastelBlue)
+                .append("", Colors.pastelBlue)
+                .append("", Colors.pastelGreen);
+        hunter = null;
+        town = null;
+    }
+
+    /**
+     * Brings the HUD up to date and sends it to the window.
+     *
+     * @param window Where to show the HUD.
+     * @param hunter The hunter being played.
+     * @param town The town the hunter is in.
+     */
+    public void show(OutputSink window, Hunter hunter, Town town) {
+        int changes = hunter.takeChanges();
+        if (hunter != this.hunter) {
+            // a new or loaded game: every part is new
+            this.hunter = hunter;
+            text.setText(NAME, hunter.getHunterName() + " has ");
+            changes = Hunter.GOLD | Hunter.KIT | Hunter.TREASURES;
+        }
+        if ((changes & Hunter.GOLD) != 0) {
+            text.setText(GOLD, Integer.toString(hunter.getHunterGold()));
+        }
+        if ((changes & Hunter.KIT) != 0) {
+            String kit = hunter.getInventory();
+            text.setText(KIT, kit.isEmpty() ? " gold" : " gold and " + kit);
+        }
+        if ((changes & Hunter.TREASURES) != 0) {
+            String treasures = hunter.getTreasures();
+            text.setText(TREASURES, "\nTreasures found: " + (treasures.isEmpty() ? "none" : treasures) + "\n");
+        }
+        if (town != this.town) {
+            this.town = town;
+            text.setText(TOWN, town.infoString() + "\n");
+        }
+        text.setText(NEWS, town.getLatestNews());
+        window.addStyledText(text);
+    }
+}
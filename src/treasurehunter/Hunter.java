@@ -0,0 +1,322 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hunter Class<br /><br />
+ * This class represents the treasure hunter character (the player) in the Treasure Hunt game.
+ * The kit and the treasures found are kept as a count of each item, indexed by the item's id in the game's
+ * ItemRegistry, so checking, adding and removing an item are single array operations. Items are only ever
+ * named by their ids here; the names the player types are looked up before they reach the hunter.
+ * The hunter also keeps track of which parts of infoString() (gold, kit, treasures) have changed since the HUD
+ * last asked, so the HUD only rebuilds the parts that did.
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class Hunter {
+    // constants
+    public static final int GOLD = 1;
+    public static final int KIT = 2;
+    public static final int TREASURES = 4;
+    private static final Item[] WINNING_TREASURES = {Item.CROWN, Item.TROPHY, Item.GEM};
+
+    //instance variables
+    private String hunterName;
+    private ItemRegistry items;
+    private int[] counts; // how many of each item the hunter has, by id; treasures included
+    private int gold;
+    private int changes; // GOLD, KIT and TREASURES bits for what changed since takeChanges()
+
+    /**
+     * The base constructor of a Hunter assigns the name to the hunter and an empty kit.
+     *
+     * @param hunterName The hunter's name.
+     * @param startingGold The gold the hunter starts with.
+     */
+    public Hunter(String hunterName, int startingGold) {
+        this(hunterName, startingGold, ItemRegistry.STANDARD);
+    }
+
+    /**
+     * @param hunterName The hunter's name.
+     * @param startingGold The gold the hunter starts with.
+     * @param items The items of the game.
+     */
+    public Hunter(String hunterName, int startingGold, ItemRegistry items) {
+        this.hunterName = hunterName;
+        this.items = items;
+        counts = new int[items.size()];
+        gold = startingGold;
+        changes = GOLD | KIT | TREASURES;
+    }
+
+    /**
+     * Writes the hunter's name, gold, kit and treasures to a snapshot. Only the items the hunter has are written,
+     * as (id, count) pairs, so a big catalog doesn't make the snapshot any bigger.
+     *
+     * @param out The buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer out) {
+        byte[] name = hunterName.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) name.length);
+        out.put(name);
+        out.putInt(gold);
+        int held = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                held++;
+            }
+        }
+        out.putShort((short) held);
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                out.putShort((short) id);
+                out.putShort((short) counts[id]);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a hunter written by writeSnapshot().
+     *
+     * @param in The buffer to read from.
+     * @param items The items of the game, which must be the ones it was saved with.
+     * @return The hunter.
+     */
+    static Hunter readSnapshot(ByteBuffer in, ItemRegistry items) {
+        byte[] name = new byte[in.getShort() & 0xffff];
+        in.get(name);
+        Hunter hunter = new Hunter(new String(name, StandardCharsets.UTF_8), in.getInt(), items);
+        int held = in.getShort() & 0xffff;
+        for (int i = 0; i < held; i++) {
+            int id = in.getShort() & 0xffff;
+            if (id >= hunter.counts.length) {
+                throw new IllegalStateException("saved game has an item this catalog doesn't: " + id);
+            }
+            hunter.counts[id] = in.getShort();
+        }
+        return hunter;
+    }
+
+    //Accessors
+    public String getHunterName() {
+        return hunterName;
+    }
+
+    public int getHunterGold() {
+        return gold;
+    }
+
+    /**
+     * @return The standard Items in the kit, as a bitmask of Item bits.
+     */
+    public long getKitMask() {
+        return maskOf(false);
+    }
+
+    /**
+     * @return The treasures found as a bitmask of Item bits.
+     */
+    public long getTreasureMask() {
+        return maskOf(true);
+    }
+
+    private long maskOf(boolean treasure) {
+        long mask = 0;
+        for (int id = 0; id < Item.count(); id++) {
+            if (counts[id] > 0 && items.isTreasure(id) == treasure) {
+                mask |= 1L << id;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Updates the amount of gold the hunter has.
+     *
+     * @param modifier Amount to modify gold by.
+     */
+    public void changeGold(int modifier) {
+        gold += modifier;
+        changes |= GOLD;
+    }
+
+    public void testMode(){
+        for (Item item : new Item[] {Item.WATER, Item.ROPE, Item.MACHETE, Item.HORSE, Item.BOAT, Item.BOOTS, Item.SHOVEL}) {
+            counts[item.id()] = 1;
+        }
+        counts[Item.GEM.id()] = 1;
+        counts[Item.CROWN.id()] = 1;
+        changes |= KIT | TREASURES;
+    } //updated to fit TH-4
+
+    public boolean checkTreasures() {
+        for (Item treasure : WINNING_TREASURES) {
+            if (counts[treasure.id()] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Buys an item from a shop.
+     *
+     * @param item The id of the item the hunter is buying, or ItemRegistry.NONE.
+     * @param costOfItem The cost of the item.
+     * @return true if the item is successfully bought.
+     */
+    public boolean buyItem(int item, int costOfItem) {
+        if (costOfItem < 0 || item == ItemRegistry.NONE) {
+            return false;
+        }
+        if (gold < costOfItem || counts[item] >= items.getStack(item)) {
+            return false;
+        }
+        if (item == Item.SWORD.id()) {
+            addItem(item);
+            return true;
+        }
+        if (hasItemInKit(Item.SWORD.id())) {
+            addItem(item);
+            return true;
+        }
+        gold -= costOfItem;
+        changes |= GOLD;
+        addItem(item);
+        return true;
+    }
+
+    /**
+     * The Hunter is selling an item to a shop for gold.<p>
+     * This method checks to make sure that the seller has the item and that the seller is getting more than 0 gold.
+     *
+     * @param item The id of the item being sold, or ItemRegistry.NONE.
+     * @param buyBackPrice the amount of gold earned from selling the item
+     * @return true if the item was successfully sold.
+     */
+    public boolean sellItem(int item, int buyBackPrice) {
+        if (buyBackPrice <= 0 || !hasItemInKit(item)) {
+            return false;
+        }
+        gold += buyBackPrice;
+        changes |= GOLD;
+        removeItemFromKit(item);
+        return true;
+    }
+
+    /**
+     * Removes one of an item from the kit.
+     *
+     * @param item The id of the item to be removed.
+     */
+    public void removeItemFromKit(int item) {
+        // if item is a real item
+        if (item != ItemRegistry.NONE && counts[item] > 0) {
+            counts[item]--;
+            changes |= KIT;
+        }
+    }
+
+    /**
+     * @param treasure The id of the treasure found.
+     * @return true if the hunter didn't have it already.
+     */
+    public boolean addTreasure(int treasure) {
+        if (treasure != ItemRegistry.NONE && counts[treasure] == 0) {
+            counts[treasure] = 1;
+            changes |= TREASURES;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds one of an item to the kit.
+     *
+     * @param item The id of the item to be added to the kit.
+     */
+    private void addItem(int item) {
+        counts[item]++;
+        changes |= KIT; // treasures come in through addTreasure()
+    }
+
+    /**
+     * Checks if the kit has the specified item.
+     *
+     * @param item The id of the search item, or ItemRegistry.NONE.
+     * @return true if the item is in the kit.
+     */
+    public boolean hasItemInKit(int item) {
+        return item != ItemRegistry.NONE && counts[item] > 0;
+    }
+
+    /**
+     * @param item The id of an item.
+     * @return How many of the item the hunter has.
+     */
+    public int getItemCount(int item) {
+        return counts[item];
+    }
+
+    /**
+     * Returns a printable representation of the inventory, which
+     * is a list of the items in kit, with a space between each item.
+     *
+     * @return The printable String representation of the inventory.
+     */
+    public String getInventory() {
+        return getInventory(false);
+    }
+
+    /**
+     * @return The treasures found, in the same form as getInventory().
+     */
+    public String getTreasures() {
+        return getInventory(true);
+    }
+
+    private String getInventory(boolean treasure) {
+        StringBuilder printableKit = new StringBuilder();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0 && items.isTreasure(id) == treasure) {
+                printableKit.append(items.getName(id));
+                if (counts[id] > 1) {
+                    printableKit.append(" x").append(counts[id]);
+                }
+                printableKit.append(' ');
+            }
+        }
+        return printableKit.toString();
+    }
+
+    /**
+     * Tells the HUD which parts of infoString() have changed since it last asked, and starts tracking afresh.
+     *
+     * @return The GOLD, KIT and TREASURES bits of what changed.
+     */
+    public int takeChanges() {
+        int changed = changes;
+        changes = 0;
+        return changed;
+    }
+
+    /**
+     * @return A string representation of the hunter.
+     */
+    public String infoString() {
+        String str = hunterName + " has " + gold  + " gold";
+        String kit = getInventory(false);
+        if (!kit.isEmpty()) {
+            str += " and " + kit;
+        }
+        String treasures = getInventory(true);
+        if (!treasures.isEmpty()) {
+            str += "\nTreasures found: " + treasures;
+        } else {
+            str += "\nTreasures found: none";
+        }
+        return str;
+    }
+}
@@ -0,0 +1,123 @@
+package treasurehunter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only record of played games, so any of them can be replayed exactly by JournalReplay.<p>
+ * A game is fully decided by the state of its GameRandom when it starts and the lines it reads, so that is all a session holds, followed by
+ * the final state of the hunter for the replay to check against. A session that never reaches its end record
+ * (the player closed the window, or the game crashed) is kept but can't be checked.<p>
+ * The file starts with a magic number and format version, followed by records that each start with a tag byte:
+ * SESSION (generator seed and gamma), LINE (one line of input) and END (outcome, turns, gold, kit mask and treasure mask).
+ */
+
+public class InputJournal implements AutoCloseable {
+    // constants
+    static final int MAGIC = 0x54484a4e; // "THJN"
+    static final short VERSION = 1;
+    static final byte SESSION = 'S';
+    static final byte LINE = 'L';
+    static final byte END = 'E';
+
+    // instance variables
+    private final DataOutputStream out;
+
+    /**
+     * Opens the journal for appending, creating it if it doesn't exist.
+     *
+     * @param file The journal file.
+     * @throws IOException If the file can't be opened.
+     */
+    public InputJournal(Path file) throws IOException {
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (empty) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        }
+    }
+
+    /**
+     * Starts recording a new game. This must be called before the game makes its first roll.
+     *
+     * @param random The game's random number source.
+     */
+    public synchronized void startSession(GameRandom random) {
+        try {
+            out.writeByte(SESSION);
+            out.writeLong(random.getSeed());
+            out.writeLong(random.getGamma());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records one line read by the game.
+     *
+     * @param line The line, as the game received it.
+     */
+    public synchronized void record(String line) {
+        try {
+            out.writeByte(LINE);
+            out.writeUTF(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records how the game ended and where the hunter was left.
+     *
+     * @param game The finished game.
+     */
+    public synchronized void endSession(TreasureHunter game) {
+        Hunter hunter = game.getHunter();
+        Outcome outcome = game.getOutcome();
+        try {
+            out.writeByte(END);
+            out.writeByte(outcome == null ? -1 : outcome.ordinal());
+            out.writeInt(game.getTurns());
+            out.writeInt(hunter.getHunterGold());
+            out.writeLong(hunter.getKitMask());
+            out.writeLong(hunter.getTreasureMask());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Wraps an InputSource so every line it supplies is recorded.<p>
+     * Each line is written out as soon as it is read, so a crash still leaves everything that led up to it in the journal.
+     *
+     * @param source Where the lines really come from.
+     * @return An InputSource that reads from source and records what it read.
+     */
+    public InputSource wrap(InputSource source) {
+        return prompt -> {
+            String line = source.nextLine(prompt);
+            record(line);
+            flush();
+            return line;
+        };
+    }
+
+    public synchronized void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,16 @@
+package treasurehunter;
+
+/**
+ * An InputSource supplies the lines the player types.<p>
+ * The game never reads System.in directly, so the same game can be played from the keyboard or by a Strategy.
+ */
+
+public interface InputSource {
+    /**
+     * Reads the player's answer to a prompt.
+     *
+     * @param prompt The question being asked.
+     * @return The line the player entered, without the line terminator.
+     */
+    String nextLine(Prompt prompt);
+}
@@ -0,0 +1,83 @@
+package treasurehunter;
+
+/**
+ * The items the rules of the game depend on, and the treasures that can be collected. An ItemRegistry always
+ * starts with these, and can add more that shops sell.<p>
+ * Each one has its own bit, so the standard part of a kit or treasure collection fits in one long,
+ * and its ordinal is its id in every registry.
+ */
+
+public enum Item {
+    // kit items, in the order the shop lists them, with their base cost
+    WATER("water", 2),
+    ROPE("rope", 4),
+    BOOTS("boots", 5), // added for TH-4
+    MACHETE("machete", 6),
+    HORSE("horse", 12),
+    BOAT("boat", 20),
+    SHOVEL("shovel", 8),
+    SWORD("sword", 0),
+    // treasures, which no shop sells
+    CROWN("crown", -1),
+    TROPHY("trophy", -1),
+    GEM("gem", -1);
+
+    // static variables
+    private static final Item[] ITEMS = values();
+
+    // instance variables
+    private final String itemName;
+    private final int baseCost;
+    private final long bit;
+
+    Item(String itemName, int baseCost) {
+        this.itemName = itemName;
+        this.baseCost = baseCost;
+        bit = 1L << ordinal();
+    }
+
+    /**
+     * @return The lowercase name the player types for this item.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return What the item costs before any town's prices are applied, or -1 if shops don't sell it.
+     */
+    public int getBaseCost() {
+        return baseCost;
+    }
+
+    /**
+     * @return The item's id in every ItemRegistry, which is its ordinal.
+     */
+    public int id() {
+        return ordinal();
+    }
+
+    /**
+     * @return This item's bit in a kit or treasure mask.
+     */
+    public long bit() {
+        return bit;
+    }
+
+    /**
+     * Looks up the item with the given bit number.
+     *
+     * @param index The bit number (the item's ordinal).
+     * @return The item.
+     */
+    public static Item fromIndex(int index) {
+        return ITEMS[index];
+    }
+
+    /**
+     * @return The number of items.
+     */
+    public static int count() {
+        return ITEMS.length;
+    }
+}
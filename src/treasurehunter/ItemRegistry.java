@@ -0,0 +1,284 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every item a game knows about, each interned to a dense int id, with what it costs, how easily it breaks and
+ * how many of it a hunter can carry.<p>
+ * The Items the rules depend on (the terrain items, the shovel, the sword and the three treasures) always come
+ * first, with their ordinals as their ids, so Item.id() means the same thing in every registry. A catalog can
+ * change their costs, break factors and stacks, and can add any number of items after them.<p>
+ * A name typed by the player is turned into an id once, by idOf(), and from then on Hunter, Shop and Terrain only
+ * deal in ids. idOf() uses a perfect hash built for the registry's names ("hash and displace"): each name's hash
+ * picks a bucket, and each bucket has a displacement, chosen when the registry is built, that sends all of its
+ * names to empty slots. A lookup is one hash of the name, two array reads and one equals().<p>
+ * A catalog file has one item per line: name,cost,break,stack[,treasure]. The cost is -1 for an item no shop
+ * sells, break is how easily the item breaks when used to cross a terrain, as a multiple of the difficulty's break
+ * chance, and stack is how many a hunter can carry; neither can be negative. The standard treasures can't be given
+ * a price. Blank lines and lines starting with # are skipped.
+ */
+
+public class ItemRegistry {
+    // constants
+    public static final int NONE = -1;
+    public static final ItemRegistry STANDARD = new ItemRegistry(List.of());
+    private static final int BUCKET_SIZE = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+
+    // instance variables
+    private final String[] names;
+    private final int[] costs;
+    private final double[] breakFactors;
+    private final int[] stacks;
+    private final boolean[] treasures;
+    private final int[] displacements; // by bucket
+    private final int[] slots;         // the id of the name in each slot, or NONE
+    private final int slotMask;
+    private final long fingerprint;
+
+    /**
+     * Builds a registry of the standard Items followed by the items of a catalog.
+     *
+     * @param catalog The catalog's lines, in the format described above.
+     */
+    public ItemRegistry(List<String> catalog) {
+        List<String> names = new ArrayList<>();
+        List<int[]> numbers = new ArrayList<>();        // cost and stack
+        List<Double> breakFactors = new ArrayList<>();
+        List<Boolean> treasures = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < Item.count(); i++) {
+            Item item = Item.fromIndex(i);
+            ids.put(item.getItemName(), i);
+            names.add(item.getItemName());
+            numbers.add(new int[] {item.getBaseCost(), 1});
+            breakFactors.add(1.0);
+            treasures.add(item.getBaseCost() < 0);
+        }
+
+        for (int line = 0; line < catalog.size(); line++) {
+            String text = catalog.get(line).trim();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            String[] fields = text.split("\\s*,\\s*");
+            if (fields.length < 4 || fields.length > 5) {
+                throw new IllegalStateException("line " + (line + 1) + " of the item catalog should be name,cost,break,stack[,treasure]: " + text);
+            }
+            String name = fields[0].toLowerCase();
+            int id = ids.getOrDefault(name, NONE);
+            if (id >= Item.count()) {
+                throw new IllegalStateException("line " + (line + 1) + " of the item catalog repeats " + name);
+            }
+            try {
+                int[] itemNumbers = {Integer.parseInt(fields[1]), Integer.parseInt(fields[3])};
+                double breakFactor = Double.parseDouble(fields[2]);
+                boolean treasure = fields.length == 5 && fields[4].equals("treasure");
+                if (!(breakFactor >= 0) || itemNumbers[1] < 0) {
+                    throw new IllegalStateException("line " + (line + 1) + " of the item catalog has a negative break or stack: " + text);
+                }
+                if (id < 0) {
+                    ids.put(name, names.size());
+                    names.add(name);
+                    numbers.add(itemNumbers);
+                    breakFactors.add(breakFactor);
+                    treasures.add(treasure);
+                } else {
+                    // the standard items keep their names and what they are; only their numbers can change
+                    if (treasures.get(id) && itemNumbers[0] >= 0) {
+                        throw new IllegalStateException("line " + (line + 1) + " of the item catalog puts a price on the treasure " + name);
+                    }
+                    numbers.set(id, itemNumbers);
+                    breakFactors.set(id, breakFactor);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("line " + (line + 1) + " of the item catalog has a bad number: " + text, e);
+            }
+        }
+
+        int count = names.size();
+        this.names = names.toArray(new String[0]);
+        costs = new int[count];
+        this.breakFactors = new double[count];
+        stacks = new int[count];
+        this.treasures = new boolean[count];
+        for (int id = 0; id < count; id++) {
+            costs[id] = numbers.get(id)[0];
+            stacks[id] = Math.max(1, numbers.get(id)[1]);
+            this.breakFactors[id] = breakFactors.get(id);
+            this.treasures[id] = treasures.get(id);
+        }
+
+        // a quarter of the slots are left empty, so every bucket finds room quickly
+        int slotCount = Integer.highestOneBit(Math.max(1, count + count / 4) * 2 - 1);
+        slotMask = slotCount - 1;
+        slots = new int[slotCount];
+        Arrays.fill(slots, NONE);
+        displacements = new int[Math.max(1, count / BUCKET_SIZE)];
+        placeNames();
+        fingerprint = ((long) count << 32) | (Arrays.hashCode(this.names) & 0xffffffffL);
+    }
+
+    /**
+     * Reads a catalog file and builds its registry.
+     *
+     * @param file The catalog.
+     * @return The registry.
+     */
+    public static ItemRegistry load(Path file) {
+        try {
+            return new ItemRegistry(Files.readAllLines(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // chooses each bucket's displacement, the biggest buckets first while there is the most room
+    private void placeNames() {
+        long[] hashes = new long[names.length];
+        List<List<Integer>> buckets = new ArrayList<>();
+        for (int b = 0; b < displacements.length; b++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int id = 0; id < names.length; id++) {
+            hashes[id] = hash(names[id]);
+            buckets.get(bucketOf(hashes[id])).add(id);
+        }
+        Integer[] order = new Integer[buckets.size()];
+        for (int b = 0; b < order.length; b++) {
+            order[b] = b;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        int[] taken = new int[BUCKET_SIZE * 8];
+        for (int b : order) {
+            List<Integer> ids = buckets.get(b);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (ids.size() > taken.length) {
+                taken = new int[ids.size()];
+            }
+            int displacement = 0;
+            while (!fits(ids, hashes, displacement, taken)) {
+                displacement++;
+                if (displacement == MAX_DISPLACEMENT) {
+                    throw new IllegalStateException("can't build a perfect hash for the item names (" + names[ids.get(0)] + "...)");
+                }
+            }
+            displacements[b] = displacement;
+            for (int id : ids) {
+                slots[slotOf(hashes[id], displacement)] = id;
+            }
+        }
+    }
+
+    // whether every name of a bucket lands in an empty slot of its own with the given displacement
+    private boolean fits(List<Integer> ids, long[] hashes, int displacement, int[] taken) {
+        for (int i = 0; i < ids.size(); i++) {
+            int slot = slotOf(hashes[ids.get(i)], displacement);
+            if (slots[slot] != NONE) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (taken[j] == slot) {
+                    return false;
+                }
+            }
+            taken[i] = slot;
+        }
+        return true;
+    }
+
+    // FNV-1a over the name's characters, then mixed; String.hashCode() gives too many names the same hash to separate them
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // the SplitMix64 finalizer, so every bit of the result depends on every bit of the input
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private int bucketOf(long hash) {
+        return (int) ((hash >>> 32) % displacements.length);
+    }
+
+    private int slotOf(long hash, int displacement) {
+        // names that share a bucket go to different slots for each displacement, so one of them separates them
+        return (int) mix(hash + displacement * 0x9e3779b97f4a7c15L) & slotMask;
+    }
+
+    /**
+     * Looks up an item by the name the player types.
+     *
+     * @param name The lowercase item name.
+     * @return The item's id, or NONE if there is no item with that name.
+     */
+    public int idOf(String name) {
+        long hash = hash(name);
+        int id = slots[slotOf(hash, displacements[bucketOf(hash)])];
+        return id != NONE && names[id].equals(name) ? id : NONE;
+    }
+
+    /**
+     * @return The number of items; ids run from 0 to one less than this.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return The number of items and a hash of their names, so a saved game can tell whether its ids still
+     *         mean the same items.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return What the item costs before any town's prices are applied, or -1 if shops don't sell it.
+     */
+    public int getCost(int id) {
+        return costs[id];
+    }
+
+    /**
+     * @return How easily the item breaks when used to cross a terrain, as a multiple of the difficulty's break chance.
+     */
+    public double getBreakFactor(int id) {
+        return breakFactors[id];
+    }
+
+    /**
+     * @return The most of the item a hunter can carry at once.
+     */
+    public int getStack(int id) {
+        return stacks[id];
+    }
+
+    /**
+     * @return true if the item is a treasure, which is found rather than bought.
+     */
+    public boolean isTreasure(int id) {
+        return treasures[id];
+    }
+}
@@ -0,0 +1,182 @@
+package treasurehunter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replays the games in an InputJournal headless and checks that each one ends exactly as it did when it was played.<p>
+ * Each session is played again from its recorded generator state and lines with all output discarded, then its outcome, turns,
+ * gold, kit and treasures are compared with the journal. Sessions are replayed in parallel, so a journal of thousands
+ * of games runs in a second or two and can be kept as a regression corpus.<p>
+ * Usage: java JournalReplay journal<p>
+ * or: java JournalReplay --record journal [games] [difficulty] [maxTurns] [seed] to add games played by a
+ * RandomStrategy to the journal, game i from GameRandom.seedFor(seed, i) as in BatchRunner.
+ */
+
+public class JournalReplay {
+    // constants
+    private static final int MAX_REPORTED = 20;
+
+    /**
+     * Reads every session in a journal. A session cut off part way through a record is kept up to that point.
+     *
+     * @param file The journal file.
+     * @return The sessions, in the order they were recorded.
+     * @throws IOException If the file can't be read or isn't a journal.
+     */
+    public static List<Session> read(Path file) throws IOException {
+        List<Session> sessions = new ArrayList<Session>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != InputJournal.MAGIC) {
+                throw new IOException(file + " is not a Treasure Hunter journal");
+            }
+            short version = in.readShort();
+            if (version != InputJournal.VERSION) {
+                throw new IOException(file + " is journal version " + version + ", expected " + InputJournal.VERSION);
+            }
+            Session session = null;
+            List<String> lines = new ArrayList<String>();
+            try {
+                while (true) {
+                    int tag = in.read();
+                    if (tag < 0) {
+                        break;
+                    } else if (tag == InputJournal.SESSION) {
+                        if (session != null) {
+                            session.lines = lines.toArray(new String[0]);
+                        }
+                        session = new Session(in.readLong(), in.readLong());
+                        sessions.add(session);
+                        lines.clear();
+                    } else if (tag == InputJournal.LINE && session != null) {
+                        lines.add(in.readUTF());
+                    } else if (tag == InputJournal.END && session != null) {
+                        int outcome = in.readByte();
+                        session.outcome = outcome < 0 ? null : Outcome.values()[outcome];
+                        session.turns = in.readInt();
+                        session.gold = in.readInt();
+                        session.kit = in.readLong();
+                        session.treasures = in.readLong();
+                        session.complete = true;
+                    } else {
+                        throw new IOException("bad record tag " + tag + " in " + file);
+                    }
+                }
+            } catch (EOFException e) {
+                // the last record was only partly written; keep what came before it
+            }
+            if (session != null) {
+                session.lines = lines.toArray(new String[0]);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * One recorded game: the state its GameRandom started in, the lines it read and, if it finished, how it ended.
+     */
+    public static class Session {
+        private final long seed;
+        private final long gamma;
+        private String[] lines;
+        private boolean complete;
+        private Outcome outcome;
+        private int turns;
+        private int gold;
+        private long kit;
+        private long treasures;
+
+        Session(long seed, long gamma) {
+            this.seed = seed;
+            this.gamma = gamma;
+            lines = new String[0];
+            complete = false;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * Plays the session again and compares the result with the journal.
+         *
+         * @return null if the replay ends exactly as recorded, otherwise what was different.
+         */
+        public String replay() {
+            ArrayInput input = new ArrayInput(lines);
+            TreasureHunter game = new TreasureHunter(input, HeadlessOutput.INSTANCE, new GameRandom(seed, gamma));
+            // a game that hit its turn limit when recorded has to stop at the same place
+            game.setMaxTurns(turns);
+            try {
+                game.play();
+            } catch (RuntimeException e) {
+                return "seed " + seed + ": replay failed: " + e;
+            }
+            Hunter hunter = game.getHunter();
+            if (!Objects.equals(game.getOutcome(), outcome) || game.getTurns() != turns || hunter.getHunterGold() != gold
+                    || hunter.getKitMask() != kit || hunter.getTreasureMask() != treasures || input.remaining() != 0) {
+                return String.format("seed %d: recorded %s after %d turns, %d gold, kit %x, treasures %x; "
+                                + "replayed %s after %d turns, %d gold, kit %x, treasures %x, %d lines left over",
+                        seed, outcome, turns, gold, kit, treasures, game.getOutcome(), game.getTurns(),
+                        hunter.getHunterGold(), hunter.getKitMask(), hunter.getTreasureMask(), input.remaining());
+            }
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1 && args[0].equals("--record")) {
+            record(args);
+            return;
+        }
+        List<Session> sessions = read(Path.of(args[0]));
+        long start = System.nanoTime();
+        List<String> differences = sessions.parallelStream()
+                .filter(Session::isComplete)
+                .map(Session::replay)
+                .filter(Objects::nonNull)
+                .toList();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long complete = sessions.stream().filter(Session::isComplete).count();
+        System.out.printf("%d sessions replayed in %.2f s: %.0f sessions/sec%n", complete, seconds, complete / seconds);
+        System.out.printf("  matched     %d%n", complete - differences.size());
+        System.out.printf("  differed    %d%n", differences.size());
+        System.out.printf("  incomplete  %d (not checked)%n", sessions.size() - complete);
+        for (int i = 0; i < Math.min(differences.size(), MAX_REPORTED); i++) {
+            System.out.println(differences.get(i));
+        }
+        if (!differences.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static void record(String[] args) throws IOException {
+        Path file = Path.of(args[1]);
+        long games = args.length > 2 ? Long.parseLong(args[2]) : 10_000;
+        String difficulty = args.length > 3 ? args[3] : "n";
+        int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        try (InputJournal journal = new InputJournal(file)) {
+            for (long i = 0; i < games; i++) {
+                HeadlessGame game = new HeadlessGame(random -> new RandomStrategy(difficulty, random),
+                        GameRandom.seedFor(seed, i), maxTurns);
+                game.setJournal(journal);
+                game.play();
+            }
+        }
+        System.out.printf("recorded %d games (seed %d) to %s%n", games, seed, file);
+    }
+}
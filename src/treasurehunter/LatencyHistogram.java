@@ -0,0 +1,127 @@
+package treasurehunter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in nanoseconds into log-linear buckets, so percentiles can be read off without keeping every sample.
+ * It works just as well for any other amount that can't go below zero, such as turns or gold.<p>
+ * Each power of two is split into 16 buckets, so a percentile is accurate to within about 6%. Recording is one atomic
+ * increment and never allocates, so any number of threads can record into one histogram at once.<p>
+ * A histogram that many threads record into at once can be striped: each thread counts into one of several
+ * copies of the buckets, picked by its thread id, so they don't all fight over the same few counters. The copies
+ * are added together when the histogram is read. Histograms kept apart, such as by different batches of games,
+ * can be merged with add().
+ */
+
+public class LatencyHistogram {
+    // constants
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    // instance variables
+    private final AtomicLongArray counts; // stripe by stripe
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        this(1);
+    }
+
+    /**
+     * @param stripes How many copies of the buckets to spread the recording threads over; rounded up to a power of two.
+     */
+    public LatencyHistogram(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        counts = new AtomicLongArray(BUCKETS * size);
+        stripeMask = size - 1;
+    }
+
+    /**
+     * @param nanos The latency to count; negative values count as zero.
+     */
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.incrementAndGet(stripe * BUCKETS + bucketFor(Math.max(0, nanos)));
+    }
+
+    /**
+     * @return How many latencies have been recorded.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile The percentile to find, from 0 to 100.
+     * @return The upper bound of the bucket holding that percentile, in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += getBucket(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Adds everything recorded in another histogram to this one.
+     *
+     * @param other The histogram to add; it can still be recorded into while this runs.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.getBucket(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Empties the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    // one bucket, added up over the stripes
+    private long getBucket(int bucket) {
+        long count = 0;
+        for (int i = bucket; i < counts.length(); i += BUCKETS) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    // values below SUB_BUCKETS get a bucket each; above that, the top SUB_BITS + 1 bits pick the bucket
+    static int bucketFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
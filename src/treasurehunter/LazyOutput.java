@@ -0,0 +1,56 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.util.function.Supplier;
+
+/**
+ * An OutputSink that doesn't create the real one until there is something to show.<p>
+ * Building an OutputWindow starts the AWT toolkit and loads fonts, so wrapping it in a LazyOutput
+ * keeps that cost off the start-up path of anything that never draws to it.
+ */
+
+public class LazyOutput implements OutputSink {
+    // instance variables
+    private final Supplier<? extends OutputSink> factory;
+    private OutputSink sink;
+
+    /**
+     * @param factory Creates the real OutputSink the first time it is needed.
+     */
+    public LazyOutput(Supplier<? extends OutputSink> factory) {
+        this.factory = factory;
+        sink = null;
+    }
+
+    public void addTextToWindow(String text, Color color) {
+        sink().addTextToWindow(text, color);
+    }
+
+    public void addStyledText(StyledText text) {
+        sink().addStyledText(text);
+    }
+
+    public void clear() {
+        sink().clear();
+    }
+
+    public void flush() {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * @return true once the real OutputSink has been created.
+     */
+    public boolean isCreated() {
+        return sink != null;
+    }
+
+    private OutputSink sink() {
+        if (sink == null) {
+            sink = factory.get();
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,809 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A leaderboard of finished games, kept on disk: the hunter's name, the difficulty, the gold and treasures they
+ * finished with, how many turns they took and how the game ended.<p>
+ * Hunters are ranked within their difficulty by treasures found, then gold, then fewest turns, and then by who
+ * got there first.<p>
+ * Every game is appended to a log file as a fixed-size record with its own CRC32. Adding a game only reserves the
+ * next record number with an atomic counter and writes the record at its own place in the file, so any number
+ * of sessions can add games at once without waiting on each other. A record that is still being written simply
+ * fails its CRC until it is done, and one whose add() failed part way is remembered so indexing skips it.<p>
+ * The log is indexed by sorted runs: files of (score, record number) pairs, sorted best first, with a section for
+ * each difficulty. Once FLUSH_RECORDS games have piled up past the end of the index, whichever session adds the
+ * next one sorts them into a new run, and runs are merged two at a time whenever the older one is no more than
+ * twice the size of the newer, so there are never more than about log2(games / FLUSH_RECORDS) of them. Only one
+ * session indexes at a time; the others carry on adding games and never wait for it. The list of runs is kept in
+ * a small manifest that is replaced in one move, so a crash part way through indexing loses nothing.<p>
+ * Queries read the runs through memory mappings: the top K of a difficulty merges the heads of the runs, and a
+ * rank is a binary search in each run, so both stay well under a millisecond with tens of millions of games.
+ * Games not yet indexed are read straight from the end of the log.<p>
+ * Usage: java Leaderboard file [games] [threads]; fills the leaderboard with random games and times its queries.
+ */
+
+public class Leaderboard implements AutoCloseable {
+    // constants
+    static final int MAGIC = 0x54484c42; // "THLB"
+    static final short VERSION = 1;
+    private static final int MANIFEST_MAGIC = 0x54484c4d; // "THLM"
+    private static final int RUN_MAGIC = 0x54484c52; // "THLR"
+    private static final int RECORD_SIZE = 64;
+    private static final int MAX_DIFFICULTY_BYTES = 10;
+    private static final int MAX_NAME_BYTES = 31;
+    private static final int ENTRY_SIZE = 16; // score and record number
+    private static final int FLUSH_RECORDS = 1024;
+    private static final int MAX_FLUSH_RECORDS = 1 << 20; // also the most a flush's sort key can count to
+    private static final int GOLD_BITS = 24;
+    private static final int TURN_BITS = 16;
+    private static final long MAX_SCORE = (1L << (2 + GOLD_BITS + TURN_BITS)) - 1;
+
+    // instance variables
+    private final Path file;
+    private final FileChannel log;
+    private final AtomicLong nextRecord;
+    private final long openedRecords; // records from before the log was opened, which will never be finished now
+    private final ReentrantLock indexing;
+    private final Set<Long> abandoned; // records whose add() failed after reserving them, until indexing steps over them
+    private volatile Index index;
+    private long nextRunId; // only used while indexing
+
+    /**
+     * Opens the leaderboard, creating it if it doesn't exist. The index lives in files next to the log, named
+     * after it.
+     *
+     * @param file The log file.
+     * @throws IOException If the files can't be opened, or aren't a leaderboard.
+     */
+    public Leaderboard(Path file) throws IOException {
+        this.file = file;
+        log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+        if (log.size() == 0) {
+            header.putInt(MAGIC).putShort(VERSION).clear();
+            writeFully(header, 0);
+        } else {
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                log.close();
+                throw new IOException(file + " isn't a leaderboard");
+            }
+        }
+        // a record cut off by a crash is written over by the next game
+        openedRecords = log.size() / RECORD_SIZE - 1;
+        nextRecord = new AtomicLong(openedRecords);
+        indexing = new ReentrantLock();
+        abandoned = ConcurrentHashMap.newKeySet();
+        index = readManifest();
+
+        indexing.lock();
+        try {
+            while (openedRecords - index.records >= FLUSH_RECORDS && flush()) {
+                // the log was written past the index, perhaps by a version that never indexed it
+            }
+        } finally {
+            indexing.unlock();
+        }
+    }
+
+    /**
+     * One finished game on the leaderboard.
+     */
+    public static class Entry {
+        private final long record;
+        private final String name;
+        private final String difficulty;
+        private final int gold;
+        private final long treasureMask;
+        private final int turns;
+        private final Outcome outcome;
+
+        private Entry(long record, String name, String difficulty, int gold, long treasureMask, int turns,
+                      Outcome outcome) {
+            this.record = record;
+            this.name = name;
+            this.difficulty = difficulty;
+            this.gold = gold;
+            this.treasureMask = treasureMask;
+            this.turns = turns;
+            this.outcome = outcome;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public int getGold() {
+            return gold;
+        }
+
+        /**
+         * @return The treasures found as a bitmask of Item bits.
+         */
+        public long getTreasureMask() {
+            return treasureMask;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return The entry's place in the log, counting from 0; earlier entries win ties.
+         */
+        public long getRecord() {
+            return record;
+        }
+
+        // packs the ranking into one number, higher being better: treasures, then gold, then fewest turns
+        long getScore() {
+            long treasures = Math.min(3, Long.bitCount(treasureMask));
+            long clampedGold = Math.max(-(1 << (GOLD_BITS - 1)), Math.min((1 << (GOLD_BITS - 1)) - 1, gold));
+            long turnsLeft = (1 << TURN_BITS) - 1 - Math.min(turns, (1 << TURN_BITS) - 1);
+            return treasures << (GOLD_BITS + TURN_BITS) | (clampedGold + (1 << (GOLD_BITS - 1))) << TURN_BITS | turnsLeft;
+        }
+
+        private void write(ByteBuffer out) {
+            int start = out.position();
+            byte[] difficultyBytes = difficulty.getBytes(StandardCharsets.UTF_8);
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            out.putInt(0); // CRC, filled in below
+            out.putInt(gold);
+            out.putInt(turns);
+            out.put((byte) outcome.ordinal());
+            out.put((byte) difficultyBytes.length);
+            out.put(difficultyBytes);
+            out.position(start + 14 + MAX_DIFFICULTY_BYTES);
+            out.putLong(treasureMask);
+            out.put((byte) nameBytes.length);
+            out.put(nameBytes);
+            out.position(start + RECORD_SIZE);
+            out.putInt(start, checksum(out, start));
+        }
+
+        // returns null if the record doesn't check out, because it is still being written or was never finished
+        private static Entry read(ByteBuffer in, int start, long record) {
+            int outcome = in.get(start + 12);
+            if (in.getInt(start) != checksum(in, start) || outcome < 0 || outcome >= Outcome.values().length) {
+                return null;
+            }
+            byte[] difficultyBytes = new byte[Math.min(in.get(start + 13), MAX_DIFFICULTY_BYTES)];
+            in.get(start + 14, difficultyBytes);
+            int nameStart = start + 14 + MAX_DIFFICULTY_BYTES + 8;
+            byte[] nameBytes = new byte[Math.min(in.get(nameStart), MAX_NAME_BYTES)];
+            in.get(nameStart + 1, nameBytes);
+            return new Entry(record, new String(nameBytes, StandardCharsets.UTF_8),
+                    new String(difficultyBytes, StandardCharsets.UTF_8), in.getInt(start + 4),
+                    in.getLong(start + 14 + MAX_DIFFICULTY_BYTES), in.getInt(start + 8),
+                    Outcome.values()[outcome]);
+        }
+
+        private static int checksum(ByteBuffer buffer, int start) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(start + 4, RECORD_SIZE - 4));
+            // a record of all zeros, which is what an unwritten one looks like, never checks out
+            return (int) crc.getValue() ^ 1;
+        }
+
+        // whether this entry ranks above one with the given score and record number
+        private boolean isAbove(long otherScore, long otherRecord) {
+            long score = getScore();
+            return score > otherScore || (score == otherScore && record < otherRecord);
+        }
+
+        public String toString() {
+            return String.format("%s (%s): %s with %d treasures and %d gold in %d turns", name, difficulty, outcome,
+                    Long.bitCount(treasureMask), gold, turns);
+        }
+    }
+
+    /**
+     * Adds a finished game to the leaderboard.
+     *
+     * @param game The game, which must be over.
+     * @return Its entry.
+     */
+    public Entry add(TreasureHunter game) {
+        Hunter hunter = game.getHunter();
+        return add(hunter.getHunterName(), game.getProfile().getName(), hunter.getHunterGold(),
+                hunter.getTreasureMask(), game.getTurns(), game.getOutcome());
+    }
+
+    /**
+     * Adds a finished game to the leaderboard. Safe to call from any number of threads at once.
+     *
+     * @param name The hunter's name; only the first 31 bytes are kept.
+     * @param difficulty The name of the difficulty; only the first 10 bytes are kept.
+     * @param gold The gold the hunter finished with.
+     * @param treasureMask The treasures found, as a bitmask of Item bits.
+     * @param turns How many turns the game lasted.
+     * @param outcome How the game ended.
+     * @return Its entry.
+     */
+    public Entry add(String name, String difficulty, int gold, long treasureMask, int turns, Outcome outcome) {
+        String keptName = truncate(name, MAX_NAME_BYTES);
+        String keptDifficulty = truncate(difficulty, MAX_DIFFICULTY_BYTES);
+        long record = nextRecord.getAndIncrement();
+        Entry entry;
+        try {
+            entry = new Entry(record, keptName, keptDifficulty, gold, treasureMask, turns, outcome);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+            entry.write(buffer);
+            buffer.flip();
+            writeFully(buffer, offsetOf(record));
+        } catch (RuntimeException e) {
+            // the record will never check out, so indexing has to step over it rather than wait for it
+            abandoned.add(record);
+            throw e;
+        }
+
+        // whoever finds the log far enough past the index indexes it; everyone else carries on
+        if (record + 1 - index.records >= FLUSH_RECORDS && indexing.tryLock()) {
+            try {
+                flush();
+            } finally {
+                indexing.unlock();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * @param difficulty The name of a difficulty.
+     * @param k How many entries to return at most.
+     * @return The best k entries of the difficulty, best first.
+     */
+    public List<Entry> top(String difficulty, int k) {
+        Index current = index;
+        List<Entry> tail = tail(current, difficulty);
+        tail.sort(Comparator.comparingLong(Entry::getScore).reversed().thenComparingLong(Entry::getRecord));
+        long[] positions = new long[current.runs.length];
+        long[] ends = new long[current.runs.length];
+        for (int r = 0; r < current.runs.length; r++) {
+            int section = current.runs[r].sectionOf(difficulty);
+            positions[r] = section < 0 ? 0 : current.runs[r].starts[section];
+            ends[r] = section < 0 ? 0 : current.runs[r].starts[section] + current.runs[r].counts[section];
+        }
+
+        List<Entry> top = new ArrayList<>(k);
+        int nextTail = 0;
+        while (top.size() < k) {
+            // the best of the runs' heads
+            int best = -1;
+            for (int r = 0; r < current.runs.length; r++) {
+                if (positions[r] < ends[r] && (best < 0 || current.runs[r].isAbove(positions[r],
+                        current.runs[best].score(positions[best]), current.runs[best].record(positions[best])))) {
+                    best = r;
+                }
+            }
+            if (nextTail < tail.size() && (best < 0 || tail.get(nextTail).isAbove(
+                    current.runs[best].score(positions[best]), current.runs[best].record(positions[best])))) {
+                top.add(tail.get(nextTail++));
+            } else if (best >= 0) {
+                top.add(readEntry(current.runs[best].record(positions[best]++)));
+            } else {
+                break;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * @param entry An entry on the leaderboard.
+     * @return The entry's place within its difficulty, where 1 is the best.
+     */
+    public long rankOf(Entry entry) {
+        return rankOf(entry.difficulty, entry.getScore(), entry.record);
+    }
+
+    /**
+     * The place a game with the given result would take within its difficulty, if it were added now.
+     *
+     * @return The place, where 1 is the best.
+     */
+    public long rankOf(String difficulty, int gold, long treasureMask, int turns) {
+        Entry entry = new Entry(Long.MAX_VALUE, "", difficulty, gold, treasureMask, turns, Outcome.QUIT);
+        return rankOf(difficulty, entry.getScore(), entry.record);
+    }
+
+    private long rankOf(String difficulty, long score, long record) {
+        Index current = index;
+        long above = 0;
+        for (Run run : current.runs) {
+            above += run.countAbove(difficulty, score, record);
+        }
+        for (Entry entry : tail(current, difficulty)) {
+            if (entry.isAbove(score, record)) {
+                above++;
+            }
+        }
+        return above + 1;
+    }
+
+    /**
+     * @param difficulty The name of a difficulty.
+     * @return How many games of that difficulty are on the leaderboard.
+     */
+    public long getCount(String difficulty) {
+        Index current = index;
+        long count = tail(current, difficulty).size();
+        for (Run run : current.runs) {
+            int section = run.sectionOf(difficulty);
+            count += section < 0 ? 0 : run.counts[section];
+        }
+        return count;
+    }
+
+    /**
+     * @return How many games have been added, including any still being written.
+     */
+    public long size() {
+        return nextRecord.get();
+    }
+
+    /**
+     * @return How many sorted runs the index is made of.
+     */
+    public int getRunCount() {
+        return index.runs.length;
+    }
+
+    /**
+     * Indexes any games still past the end of the index, then closes the log.
+     *
+     * @throws IOException If the log can't be closed.
+     */
+    public void close() throws IOException {
+        indexing.lock();
+        try {
+            while (nextRecord.get() > index.records && flush()) {
+                // index everything, so the next open starts with nothing to read from the log
+            }
+        } finally {
+            indexing.unlock();
+            log.close();
+        }
+    }
+
+    /**
+     * The runs that make up the index, and how many records of the log they cover. It is never changed once
+     * published, so queries can read it without locking.
+     */
+    private static class Index {
+        private final Run[] runs; // oldest first
+        private final long records;
+
+        Index(Run[] runs, long records) {
+            this.runs = runs;
+            this.records = records;
+        }
+    }
+
+    /**
+     * One sorted run file, mapped into memory. Each difficulty has a section of entries, best first.
+     */
+    private static class Run {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer map;
+        private final String[] difficulties;
+        private final long[] starts; // in entries, from the start of the file
+        private final long[] counts;
+        private final long entries;
+
+        Run(long id, Path path) throws IOException {
+            this.id = id;
+            this.path = path;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (map.getInt(0) != RUN_MAGIC || map.getShort(4) != VERSION) {
+                throw new IOException(path + " isn't a leaderboard run");
+            }
+            int sections = map.getInt(6);
+            difficulties = new String[sections];
+            starts = new long[sections];
+            counts = new long[sections];
+            ByteBuffer header = map.duplicate().position(10);
+            long total = 0;
+            for (int s = 0; s < sections; s++) {
+                byte[] name = new byte[header.get()];
+                header.get(name);
+                difficulties[s] = new String(name, StandardCharsets.UTF_8);
+                starts[s] = header.getLong();
+                counts[s] = header.getLong();
+                total += counts[s];
+            }
+            entries = total;
+        }
+
+        int sectionOf(String difficulty) {
+            for (int s = 0; s < difficulties.length; s++) {
+                if (difficulties[s].equals(difficulty)) {
+                    return s;
+                }
+            }
+            return -1;
+        }
+
+        long score(long entry) {
+            return map.getLong((int) (entry * ENTRY_SIZE));
+        }
+
+        long record(long entry) {
+            return map.getLong((int) (entry * ENTRY_SIZE + 8));
+        }
+
+        // whether the given entry ranks above one with the given score and record number
+        boolean isAbove(long entry, long otherScore, long otherRecord) {
+            long score = score(entry);
+            return score > otherScore || (score == otherScore && record(entry) < otherRecord);
+        }
+
+        // a binary search for the first entry of the difficulty that doesn't rank above the given one
+        long countAbove(String difficulty, long score, long record) {
+            int section = sectionOf(difficulty);
+            if (section < 0) {
+                return 0;
+            }
+            long low = starts[section];
+            long high = starts[section] + counts[section];
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                if (isAbove(mid, score, record)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - starts[section];
+        }
+    }
+
+    // the games past the end of the index, of one difficulty, in the order they were added
+    private List<Entry> tail(Index current, String difficulty) {
+        long to = nextRecord.get();
+        List<Entry> entries = new ArrayList<>();
+        if (to <= current.records) {
+            return entries;
+        }
+        ByteBuffer buffer = readRecords(current.records, to);
+        byte[] wanted = difficulty.getBytes(StandardCharsets.UTF_8);
+        for (long record = current.records; record < to; record++) {
+            int start = (int) ((record - current.records) * RECORD_SIZE);
+            // only the records of the difficulty are checked and read in full
+            if (buffer.get(start + 13) == wanted.length && buffer.slice(start + 14, wanted.length).equals(ByteBuffer.wrap(wanted))) {
+                Entry entry = Entry.read(buffer, start, record);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Sorts the games past the end of the index into a new run, merges runs as needed and publishes the new
+     * index. Must be called with the indexing lock held.
+     *
+     * @return false if there was nothing that could be indexed yet.
+     */
+    private boolean flush() {
+        Index current = index;
+        long from = current.records;
+        long to = Math.min(nextRecord.get(), from + MAX_FLUSH_RECORDS);
+        ByteBuffer buffer = readRecords(from, to);
+
+        // each difficulty's games are sorted by a key of their score, best first, and their place in the batch
+        Map<String, long[]> keys = new TreeMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (long record = from; record < to; record++) {
+            Entry entry = Entry.read(buffer, (int) ((record - from) * RECORD_SIZE), record);
+            if (entry == null) {
+                if (record >= openedRecords && !abandoned.remove(record)) {
+                    to = record; // still being written; it goes in the next run
+                    break;
+                }
+                continue; // never finished before a crash, and never will be
+            }
+            long[] difficultyKeys = keys.computeIfAbsent(entry.difficulty, d -> new long[64]);
+            int size = sizes.getOrDefault(entry.difficulty, 0);
+            if (size == difficultyKeys.length) {
+                difficultyKeys = Arrays.copyOf(difficultyKeys, size * 2);
+                keys.put(entry.difficulty, difficultyKeys);
+            }
+            difficultyKeys[size] = (MAX_SCORE - entry.getScore()) << 20 | (record - from);
+            sizes.put(entry.difficulty, size + 1);
+        }
+        if (to == from) {
+            return false;
+        }
+
+        try {
+            List<String> difficulties = new ArrayList<>(keys.keySet());
+            long[] counts = new long[difficulties.size()];
+            for (int d = 0; d < counts.length; d++) {
+                counts[d] = sizes.get(difficulties.get(d));
+            }
+            Path path = runPath(nextRunId);
+            MappedByteBuffer out = createRun(path, difficulties, counts);
+            for (int d = 0; d < counts.length; d++) {
+                long[] difficultyKeys = keys.get(difficulties.get(d));
+                Arrays.sort(difficultyKeys, 0, (int) counts[d]);
+                for (int i = 0; i < counts[d]; i++) {
+                    out.putLong(MAX_SCORE - (difficultyKeys[i] >>> 20));
+                    out.putLong(from + (difficultyKeys[i] & ((1 << 20) - 1)));
+                }
+            }
+            out.force();
+            List<Run> runs = new ArrayList<>(Arrays.asList(current.runs));
+            runs.add(new Run(nextRunId++, path));
+
+            List<Run> merged = new ArrayList<>();
+            while (runs.size() >= 2 && runs.get(runs.size() - 2).entries <= 2 * runs.get(runs.size() - 1).entries) {
+                Run newer = runs.remove(runs.size() - 1);
+                Run older = runs.remove(runs.size() - 1);
+                runs.add(merge(older, newer));
+                merged.add(older);
+                merged.add(newer);
+            }
+
+            Index next = new Index(runs.toArray(new Run[0]), to);
+            writeManifest(next);
+            index = next;
+            // queries still reading a merged run keep its mapping after the file is gone
+            for (Run run : merged) {
+                Files.deleteIfExists(run.path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    private Run merge(Run older, Run newer) throws IOException {
+        TreeMap<String, Long> sizes = new TreeMap<>();
+        for (Run run : new Run[] {older, newer}) {
+            for (int s = 0; s < run.difficulties.length; s++) {
+                sizes.merge(run.difficulties[s], run.counts[s], Long::sum);
+            }
+        }
+        List<String> difficulties = new ArrayList<>(sizes.keySet());
+        long[] counts = sizes.values().stream().mapToLong(Long::longValue).toArray();
+        Path path = runPath(nextRunId);
+        MappedByteBuffer out = createRun(path, difficulties, counts);
+        for (String difficulty : difficulties) {
+            int a = older.sectionOf(difficulty);
+            int b = newer.sectionOf(difficulty);
+            long i = a < 0 ? 0 : older.starts[a];
+            long iEnd = a < 0 ? 0 : older.starts[a] + older.counts[a];
+            long j = b < 0 ? 0 : newer.starts[b];
+            long jEnd = b < 0 ? 0 : newer.starts[b] + newer.counts[b];
+            while (i < iEnd || j < jEnd) {
+                if (j >= jEnd || (i < iEnd && older.isAbove(i, newer.score(j), newer.record(j)))) {
+                    out.putLong(older.score(i)).putLong(older.record(i));
+                    i++;
+                } else {
+                    out.putLong(newer.score(j)).putLong(newer.record(j));
+                    j++;
+                }
+            }
+        }
+        out.force();
+        return new Run(nextRunId++, path);
+    }
+
+    // creates a run file with its header written, returning a mapping of it positioned at the first entry
+    private static MappedByteBuffer createRun(Path path, List<String> difficulties, long[] counts) throws IOException {
+        int headerSize = 10;
+        for (String difficulty : difficulties) {
+            headerSize += 1 + difficulty.getBytes(StandardCharsets.UTF_8).length + 16;
+        }
+        // the header is padded to a whole entry, so entries can be found by their number alone
+        int start = (headerSize + ENTRY_SIZE - 1) / ENTRY_SIZE;
+        long size = start;
+        for (long count : counts) {
+            size += count;
+        }
+        if (size * ENTRY_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalStateException("leaderboard run is too big to map");
+        }
+        MappedByteBuffer out;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size * ENTRY_SIZE);
+        }
+        out.putInt(RUN_MAGIC).putShort(VERSION).putInt(difficulties.size());
+        long sectionStart = start;
+        for (int d = 0; d < counts.length; d++) {
+            byte[] name = difficulties.get(d).getBytes(StandardCharsets.UTF_8);
+            out.put((byte) name.length).put(name).putLong(sectionStart).putLong(counts[d]);
+            sectionStart += counts[d];
+        }
+        out.position(start * ENTRY_SIZE);
+        return out;
+    }
+
+    private Path runPath(long id) {
+        return file.resolveSibling(file.getFileName() + ".run" + id);
+    }
+
+    private Path manifestPath() {
+        return file.resolveSibling(file.getFileName() + ".index");
+    }
+
+    private Index readManifest() throws IOException {
+        Path manifest = manifestPath();
+        nextRunId = 0;
+        if (!Files.exists(manifest)) {
+            return new Index(new Run[0], 0);
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(manifest));
+        if (in.getInt() != MANIFEST_MAGIC || in.getShort() != VERSION) {
+            throw new IOException(manifest + " isn't a leaderboard index");
+        }
+        long records = in.getLong();
+        Run[] runs = new Run[in.getInt()];
+        for (int r = 0; r < runs.length; r++) {
+            long id = in.getLong();
+            runs[r] = new Run(id, runPath(id));
+            nextRunId = Math.max(nextRunId, id + 1);
+        }
+        return new Index(runs, records);
+    }
+
+    // the new manifest is written beside the old one and moved over it, so the index is always one or the other
+    private void writeManifest(Index next) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(4 + 2 + 8 + 4 + 8 * next.runs.length);
+        out.putInt(MANIFEST_MAGIC).putShort(VERSION).putLong(next.records).putInt(next.runs.length);
+        for (Run run : next.runs) {
+            out.putLong(run.id);
+        }
+        Path manifest = manifestPath();
+        Path temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Entry readEntry(long record) {
+        Entry entry = Entry.read(readRecords(record, record + 1), 0, record);
+        if (entry == null) {
+            throw new IllegalStateException("leaderboard record " + record + " is spoiled");
+        }
+        return entry;
+    }
+
+    private ByteBuffer readRecords(long from, long to) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) ((to - from) * RECORD_SIZE));
+        readFully(buffer, offsetOf(from));
+        return buffer.clear();
+    }
+
+    private static long offsetOf(long record) {
+        return (record + 1) * RECORD_SIZE; // the first record's worth of the file is its header
+    }
+
+    // positional reads and writes don't share the channel's position, so sessions can make them at the same time
+    private void writeFully(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                if (log.read(buffer, position + buffer.position()) < 0) {
+                    break; // past the end of the file, where a reserved record hasn't been written yet
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // cuts text down to a number of bytes of UTF-8 without splitting a character
+    private static String truncate(String text, int maxBytes) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return text;
+        }
+        int end = maxBytes;
+        while (end > 0 && (bytes[end] & 0xc0) == 0x80) {
+            end--;
+        }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path file = Path.of(args[0]);
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String[] difficulties = {"e", "n", "h", "s"};
+
+        try (Leaderboard board = new Leaderboard(file)) {
+            long start = System.nanoTime();
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                workers[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (long i = 0; i < share; i++) {
+                        board.add("bot" + random.nextInt(100_000), difficulties[random.nextInt(difficulties.length)],
+                                random.nextInt(-10, 500), random.nextLong(8) << Item.CROWN.ordinal(),
+                                random.nextInt(1, 200), Outcome.values()[random.nextInt(Outcome.values().length)]);
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("added %d games on %d threads in %.2f s (%.0f/s); %d games in %d runs%n",
+                    games, threads, seconds, games / seconds, board.size(), board.getRunCount());
+
+            int queries = 10_000;
+            long topNanos = 0;
+            long rankNanos = 0;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int q = 0; q < queries; q++) {
+                String difficulty = difficulties[q % difficulties.length];
+                long t0 = System.nanoTime();
+                board.top(difficulty, 10);
+                long t1 = System.nanoTime();
+                board.rankOf(difficulty, random.nextInt(-10, 500), random.nextLong(8) << Item.CROWN.ordinal(),
+                        random.nextInt(1, 200));
+                rankNanos += System.nanoTime() - t1;
+                topNanos += t1 - t0;
+            }
+            System.out.printf("top 10: %.1f us, rank: %.1f us (average of %d)%n",
+                    topNanos / 1e3 / queries, rankNanos / 1e3 / queries, queries);
+            for (Entry entry : board.top("n", 3)) {
+                System.out.println("  #" + board.rankOf(entry) + " " + entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A player that picks each move by Monte Carlo tree search: it plays the game forward from a GameState again
+ * and again with random moves, and favors whichever move leads to the most wins.<p>
+ * The search is root-parallel: every thread of a fork-join pool grows a tree of its own from the same position
+ * for the whole time budget, and the trees' visit counts for each first move are added up at the end. The trees
+ * are open-loop, meaning a node stands for a sequence of moves rather than an exact state, since the same moves
+ * can end up in different towns depending on the dice.<p>
+ * It can play a whole game as a Strategy, or give a hint for a game in progress with suggestMove().<p>
+ * Usage: java MctsBot [games] [millisPerMove] [maxTurns] [seed]
+ */
+
+public class MctsBot implements Strategy {
+    // constants
+    private static final double EXPLORATION = 1.4;
+    private static final int ROLLOUT_TURNS = 100;
+    private static final int CHECK_CLOCK_EVERY = 16;
+
+    // instance variables
+    private final DifficultyProfile profile;
+    private final GameRandom random;
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final AtomicLong rollouts;
+    private final AtomicLong searchNanos;
+    private int pendingMove;
+
+    /**
+     * @param difficulty The answer to give at the difficulty prompt ("e", "n", "h" or "s").
+     * @param random Where the rollouts' random moves and dice come from.
+     * @param budgetMillis How long to search before each move.
+     */
+    public MctsBot(String difficulty, GameRandom random, long budgetMillis) {
+        this(DifficultyProfile.forChoice(difficulty), random, budgetMillis);
+    }
+
+    /**
+     * @param profile The difficulty the game is played at; its name is the answer to the difficulty prompt.
+     */
+    public MctsBot(DifficultyProfile profile, GameRandom random, long budgetMillis) {
+        this(profile, random, budgetMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool the searches run on; each of its threads grows a tree of its own.
+     */
+    public MctsBot(DifficultyProfile profile, GameRandom random, long budgetMillis, ForkJoinPool pool) {
+        this.profile = profile;
+        this.random = random;
+        this.pool = pool;
+        budgetNanos = budgetMillis * 1_000_000;
+        rollouts = new AtomicLong();
+        searchNanos = new AtomicLong();
+        pendingMove = -1;
+    }
+
+    /**
+     * One node of a search tree: how often the moves leading to it were tried, and how often they won.
+     */
+    private static class Node {
+        private int visits;
+        private double wins;
+        private Node[] children; // indexed by move, created as they are first tried
+    }
+
+    /**
+     * Grows one tree until the deadline.
+     */
+    private class Search extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameState root;
+        private final GameRandom random;
+        private final long deadline;
+
+        Search(GameState root, GameRandom random, long deadline) {
+            this.root = root;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        protected Node compute() {
+            Node tree = new Node();
+            int[] moves = new int[GameState.MOVES];
+            Node[] path = new Node[ROLLOUT_TURNS + 1];
+            long count = 0;
+            do {
+                for (int i = 0; i < CHECK_CLOCK_EVERY; i++) {
+                    iterate(tree, root.copy(), random, moves, path);
+                }
+                count += CHECK_CLOCK_EVERY;
+            } while (System.nanoTime() < deadline);
+            rollouts.addAndGet(count);
+            return tree;
+        }
+    }
+
+    /**
+     * Finds the best move from a position, searching for the given time.
+     *
+     * @param state The position.
+     * @param budgetNanos How long to search.
+     * @return The move, numbered as in GameState.
+     */
+    public int suggestMove(GameState state, long budgetNanos) {
+        long start = System.nanoTime();
+        int threads = pool.getParallelism();
+        List<Search> searches = new ArrayList<Search>(threads);
+        for (int i = 0; i < threads; i++) {
+            // GameRandom isn't thread-safe, so every tree gets its own
+            searches.add(new Search(state, random.split(), start + budgetNanos));
+        }
+        long[] visits = new long[GameState.MOVES];
+        for (Node tree : pool.invoke(new RecursiveTask<List<Node>>() {
+            protected List<Node> compute() {
+                List<Node> trees = new ArrayList<Node>();
+                for (Search search : invokeAll(searches)) {
+                    trees.add(search.join());
+                }
+                return trees;
+            }
+        })) {
+            if (tree.children != null) {
+                for (int move = 0; move < GameState.MOVES; move++) {
+                    if (tree.children[move] != null) {
+                        visits[move] += tree.children[move].visits;
+                    }
+                }
+            }
+        }
+        searchNanos.addAndGet(System.nanoTime() - start);
+
+        int[] moves = new int[GameState.MOVES];
+        int count = state.legalMoves(moves);
+        int best = moves[0];
+        for (int i = 1; i < count; i++) {
+            if (visits[moves[i]] > visits[best]) {
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the best move for a game in progress, such as for a hint.
+     *
+     * @param game The game.
+     * @param budgetMillis How long to search.
+     * @return The lines to type at each prompt, quoted, such as "l" or "b", then "water", then "y".
+     */
+    public String suggestMove(TreasureHunter game, long budgetMillis) {
+        GameState state = GameState.of(game.getHunter(), game.getCurrentTown(), game.getProfile());
+        int move = suggestMove(state, budgetMillis * 1_000_000);
+        Item item = GameState.itemFor(move);
+        String lines = "\"" + GameState.choiceFor(move) + "\"";
+        if (item == null) {
+            return lines;
+        }
+        lines += ", then \"" + item.getItemName() + "\"";
+        // the shop only asks to confirm when the item isn't free and isn't a sword (see Shop.enter)
+        boolean buying = move < GameState.SELL;
+        if (!buying || (item != Item.SWORD && !game.getHunter().hasItemInKit(Item.SWORD.id()))) {
+            lines += ", then \"y\"";
+        }
+        return lines;
+    }
+
+    /**
+     * @return How many games have been played forward so far, over all searches.
+     */
+    public long getRollouts() {
+        return rollouts.get();
+    }
+
+    /**
+     * @return How long has been spent searching so far, in nanoseconds.
+     */
+    public long getSearchNanos() {
+        return searchNanos.get();
+    }
+
+    public String respond(Prompt prompt, Hunter hunter, Town town) {
+        if (prompt == Prompt.NAME) {
+            return "mcts";
+        } else if (prompt == Prompt.DIFFICULTY) {
+            return profile.getName();
+        } else if (prompt == Prompt.MOVE) {
+            pendingMove = suggestMove(GameState.of(hunter, town, profile), budgetNanos);
+            return GameState.choiceFor(pendingMove);
+        } else if (prompt == Prompt.BUY_ITEM || prompt == Prompt.SELL_ITEM) {
+            Item item = GameState.itemFor(pendingMove);
+            return item == null ? "" : item.getItemName();
+        } else if (prompt == Prompt.CONFIRM) {
+            return "y";
+        }
+        return "1"; // a World isn't part of the GameState, so the bot just takes the first road
+    }
+
+    // one pass of selection, expansion, rollout and backing up the result
+    private static void iterate(Node tree, GameState state, GameRandom random, int[] moves, Node[] path) {
+        Node node = tree;
+        int depth = 0;
+        path[depth++] = node;
+        Outcome outcome = null;
+        boolean expanded = false;
+        while (outcome == null && !expanded && depth < path.length) {
+            int count = state.legalMoves(moves);
+            if (node.children == null) {
+                node.children = new Node[GameState.MOVES];
+            }
+            // try every move once before choosing between them
+            int untried = 0;
+            for (int i = 0; i < count; i++) {
+                if (node.children[moves[i]] == null) {
+                    moves[untried++] = moves[i];
+                }
+            }
+            int move;
+            if (untried > 0) {
+                move = moves[random.nextInt(untried)];
+                node.children[move] = new Node();
+                expanded = true;
+            } else {
+                move = bestChild(node, moves, count);
+            }
+            node = node.children[move];
+            path[depth++] = node;
+            outcome = state.apply(move, random);
+        }
+
+        double value = outcome == null ? rollout(state, random, moves) : valueOf(outcome, state);
+        for (int i = 0; i < depth; i++) {
+            path[i].visits++;
+            path[i].wins += value;
+        }
+    }
+
+    private static int bestChild(Node node, int[] moves, int count) {
+        double logVisits = Math.log(node.visits);
+        int best = moves[0];
+        double bestScore = -1;
+        for (int i = 0; i < count; i++) {
+            Node child = node.children[moves[i]];
+            double score = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    private static double rollout(GameState state, GameRandom random, int[] moves) {
+        for (int turn = 0; turn < ROLLOUT_TURNS; turn++) {
+            int count = state.legalMoves(moves);
+            Outcome outcome = state.apply(moves[random.nextInt(count)], random);
+            if (outcome != null) {
+                return valueOf(outcome, state);
+            }
+        }
+        return valueOf(Outcome.TURN_LIMIT, state);
+    }
+
+    // a win is worth 1 and a loss nothing; a game that runs out of turns is worth a little for each treasure found
+    private static double valueOf(Outcome outcome, GameState state) {
+        if (outcome == Outcome.WON) {
+            return 1;
+        } else if (outcome == Outcome.LOST) {
+            return 0;
+        }
+        return 0.1 * state.getTreasureCount();
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long millisPerMove = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        int maxTurns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        System.out.printf("%d games per difficulty, %d ms per move, %d threads (seed %d)%n",
+                games, millisPerMove, ForkJoinPool.commonPool().getParallelism(), seed);
+        for (String difficulty : new String[] {"e", "n", "h", "s"}) {
+            MctsBot[] bot = new MctsBot[1];
+            int won = 0;
+            long turns = 0;
+            long rollouts = 0;
+            long searchNanos = 0;
+            for (int i = 0; i < games; i++) {
+                HeadlessGame game = new HeadlessGame(random -> bot[0] = new MctsBot(difficulty, random, millisPerMove),
+                        GameRandom.seedFor(seed, i), maxTurns);
+                if (game.play() == Outcome.WON) {
+                    won++;
+                }
+                turns += game.getGame().getTurns();
+                rollouts += bot[0].getRollouts();
+                searchNanos += bot[0].getSearchNanos();
+            }
+            System.out.printf("  %s: won %5.1f%%, %.1f turns a game, %.0f rollouts/sec%n", difficulty,
+                    100.0 * won / games, (double) turns / games, rollouts / (searchNanos / 1e9));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.JMX;
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * Reads the GameMetrics of a running game over JMX and prints them.<p>
+ * Given host:port, it connects to a game started with --metrics and with JMX remote enabled, such as
+ * -Dcom.sun.management.jmxremote.port=9010 -Dcom.sun.management.jmxremote.authenticate=false
+ * -Dcom.sun.management.jmxremote.ssl=false.<p>
+ * With no address, it checks the metrics in this JVM instead: it plays a batch of headless games without
+ * metrics and then the same games with them, reads the results back through the platform MBean server,
+ * and prints how much slower the measured batch was, taking the fastest of several rounds of each.<p>
+ * Usage: java MetricsClient [host:port] or java MetricsClient [games] [sampleEvery] [seed]
+ */
+
+public class MetricsClient {
+    // constants
+    private static final int MAX_TURNS = 200;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Prints the metrics in a table, one row per action that has been taken.
+     *
+     * @param metrics The metrics, local or a proxy for a remote MBean.
+     */
+    public static void print(GameMetricsMXBean metrics) {
+        System.out.printf("%d turns, 1 in %d timed; times in microseconds%n", metrics.getTurns(), metrics.getSampleEvery());
+        System.out.printf("  %-8s %10s %8s  %8s %8s  %8s %8s %8s  %8s %8s%n", "action", "count", "timed",
+                "rend p50", "p99", "logic p50", "p99", "p99.9", "input p50", "p99");
+        for (GameMetrics.ActionStats stats : metrics.getActions()) {
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("  %-8s %10d %8d  %8.1f %8.1f  %8.1f %8.1f %8.1f  %8.1f %8.1f%n", stats.getAction(),
+                    stats.getCount(), stats.getTimedCount(), stats.getRenderP50() / 1e3, stats.getRenderP99() / 1e3,
+                    stats.getLogicP50() / 1e3, stats.getLogicP99() / 1e3, stats.getLogicP999() / 1e3,
+                    stats.getInputP50() / 1e3, stats.getInputP99() / 1e3);
+        }
+        for (Map.Entry<String, Long> outcome : metrics.getOutcomes().entrySet()) {
+            if (outcome.getValue() > 0) {
+                System.out.printf("  %-14s %10d%n", outcome.getKey(), outcome.getValue());
+            }
+        }
+    }
+
+    private static GameMetricsMXBean proxy(MBeanServerConnection connection) {
+        try {
+            return JMX.newMXBeanProxy(connection, new ObjectName(GameMetrics.OBJECT_NAME), GameMetricsMXBean.class);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].contains(":")) {
+            JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + args[0] + "/jmxrmi");
+            try (JMXConnector connector = JMXConnectorFactory.connect(url)) {
+                print(proxy(connector.getMBeanServerConnection()));
+            }
+            return;
+        }
+
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 20_000;
+        int sampleEvery = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        // the two batches take turns, so both see the same JIT and the same noise from the rest of the machine
+        BatchRunner plainRunner = new BatchRunner(random -> new RandomStrategy("n", random), MAX_TURNS, seed);
+        BatchRunner runner = new BatchRunner(random -> new RandomStrategy("n", random), MAX_TURNS, seed);
+        GameMetrics metrics = new GameMetrics(sampleEvery);
+        runner.setMetrics(metrics);
+        double plain = Double.MAX_VALUE;
+        double measured = Double.MAX_VALUE;
+        for (int i = 0; i <= ROUNDS; i++) {
+            long start = System.nanoTime();
+            plainRunner.run(games);
+            long middle = System.nanoTime();
+            runner.run(games);
+            long end = System.nanoTime();
+            if (i > 0) { // the first round is a warm-up
+                plain = Math.min(plain, (middle - start) / 1e9);
+                measured = Math.min(measured, (end - middle) / 1e9);
+            }
+        }
+
+        metrics.reset();
+        metrics.register();
+        runner.run(games);
+        print(proxy(ManagementFactory.getPlatformMBeanServer()));
+        metrics.unregister();
+        System.out.printf("%d games (seed %d): %.3f s plain, %.3f s with metrics, %+.2f%% overhead%n",
+                games, seed, plain, measured, 100 * (measured / plain - 1));
+    }
+}
@@ -0,0 +1,63 @@
+package treasurehunter;
+
+import java.awt.*;
+
+/**
+ * Turns game events into the text the player reads.<p>
+ * Results of searching, digging and shopping are drawn straight to the window; results of brawls
+ * and of crossing terrain are added to the current town's news. The game drains this consumer on
+ * its own thread after every action, so the text comes out in the same order as before.
+ */
+
+public class NarrativeConsumer implements EventConsumer {
+    // instance variables
+    private final OutputSink window;
+    private Town town;
+
+    /**
+     * @param window Where results are drawn.
+     */
+    public NarrativeConsumer(OutputSink window) {
+        this.window = window;
+        town = null;
+    }
+
+    /**
+     * @param town The town whose news brawls and crossings are added to.
+     */
+    public void setTown(Town town) {
+        this.town = town;
+    }
+
+    public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+        EventType type = event.getType();
+        if (type == EventType.BRAWL_WON) {
+            town.addNews("\nYou won the brawl and receive " + event.getAmount() + " gold.");
+        } else if (type == EventType.BRAWL_LOST) {
+            town.addNews("\nYou lost the brawl and pay " + event.getAmount() + " gold.");
+        } else if (type == EventType.TERRAIN_CROSSED) {
+            town.addNews("You used your " + event.getItem().getItemName() + " to cross the " + event.getName() + ".");
+        } else if (type == EventType.ITEM_BROKE) {
+            town.addNews("\nUnfortunately, you lost your " + event.getItem().getItemName() + ".");
+        } else if (type == EventType.TREASURE_FOUND) {
+            if (event.getItem() == null) {
+                window.addTextToWindow("You found " + event.getName() + "!" + "\n", Colors.smokyBlue);
+            } else {
+                window.addTextToWindow("You found a " + event.getName() + "!" + "\n", Colors.smokyBlue);
+                if (event.isDuplicate()) {
+                    window.addTextToWindow("You have already collected this treasure!" + "\n", Colors.smokyBlue);
+                }
+            }
+        } else if (type == EventType.GOLD_DUG) {
+            if (event.getAmount() > 0) {
+                window.addTextToWindow("You dug up " + event.getAmount() + " gold!" + "\n", Colors.smokyBlue);
+            } else {
+                window.addTextToWindow("You dug but only found dirt." + "\n", Colors.brown);
+            }
+        } else if (type == EventType.PURCHASE) {
+            window.addTextToWindow("Ye' got yerself a " + event.getName() + ". Come again soon." + "\n", Colors.leafGreen);
+        } else if (type == EventType.SALE) {
+            window.addTextToWindow("Pleasure doin' business with you." + "\n", Colors.leafGreen);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package treasurehunter;
+
+/**
+ * The ways a game of Treasure Hunter can end.
+ */
+
+public enum Outcome {
+    WON,        // found the crown, the trophy and the gem
+    LOST,       // lost a brawl without enough gold to pay
+    QUIT,       // chose to give up the hunt
+    TURN_LIMIT  // a headless game ran out of turns
+}
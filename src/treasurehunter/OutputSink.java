@@ -0,0 +1,41 @@
+package treasurehunter;
+
+import java.awt.*;
+
+/**
+ * An OutputSink is anywhere the game can send its colored text.<p>
+ * The Swing OutputWindow is one; HeadlessOutput, which throws the text away, is another.
+ */
+
+public interface OutputSink {
+    /**
+     * Adds a line (or part of a line) of colored text to the end of the output.
+     *
+     * @param text The text to add.
+     * @param color The color to draw the text in.
+     */
+    void addTextToWindow(String text, Color color);
+
+    /**
+     * Adds several runs of colored text to the end of the output in one call.<p>
+     * The runs are read before this returns, so the caller may change or send the same StyledText again afterwards.
+     *
+     * @param text The runs to add, in order.
+     */
+    default void addStyledText(StyledText text) {
+        for (int i = 0; i < text.size(); i++) {
+            addTextToWindow(text.getText(i), text.getColor(i));
+        }
+    }
+
+    /**
+     * Removes all the text currently shown.
+     */
+    void clear();
+
+    /**
+     * Makes sure everything added so far is shown; called before the game waits for input.
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,174 @@
+package treasurehunter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//copied from windowDemo program provided by Mr.Miller
+
+/**
+ * The Swing window the game is shown in.<p>
+ * The game thread never touches the document itself: addTextToWindow() and clear() only queue up
+ * work, and once a frame a single task on the Swing event thread drains the queue into the document
+ * with one batched insert. flush() and awaitFlush() push queued text out early.<p>
+ * The window keeps a bounded scrollback (see setScrollbackLines()), so a long session that never
+ * clears the window doesn't keep growing the document.
+ */
+
+public class OutputWindow implements OutputSink {
+    // constants
+    private static final int FRAME_MILLIS = 16;
+    private static final int FONT_SIZE = 25;
+    private static final int DEFAULT_SCROLLBACK_LINES = 1000;
+    private static final Run CLEAR = new Run(null, null);
+    private static final StyleCache STYLES = new StyleCache(FONT_SIZE);
+
+    // instance variables
+    private BatchDocument doc;
+    private JTextPane textPane;
+    private final ConcurrentLinkedQueue<Run> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Timer frameTimer;
+    private volatile int scrollbackLines;
+    private volatile int lineCount;      // copied from the document after every drain
+    private volatile int documentLength; // copied from the document after every drain
+
+    public OutputWindow() {
+        this(new JTextPane()); // panel that can handle custom text
+        JFrame frame = new JFrame("Test");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // causes program to end when window is X'd out
+        frame.setSize(500, 400); // window size
+        frame.setLocation(300, 50); // where on screen window appears
+        frame.add(textPane); // add the panel to the frame
+        frame.setVisible(true); // display the frame on screen
+
+        // load the font and build the styles while the player is still typing their name; the font is measured
+        // on its own, since the text pane may only be touched on the event thread
+        Thread warmUp = new Thread(() -> STYLES.warmUp(Colors.PALETTE)
+                .getStringBounds("Treasure", new FontRenderContext(null, true, true)), "OutputWindow warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    // sets up the text panel without putting it in a frame, so it also works headless (used by the benchmarks)
+    OutputWindow(JTextPane textPane) {
+        this.textPane = textPane;
+        textPane.setEditable(false); // prevents user from typing into window
+        scrollbackLines = DEFAULT_SCROLLBACK_LINES;
+        doc = new BatchDocument(scrollbackLines);
+        textPane.setStyledDocument(doc);
+        frameTimer = new Timer(FRAME_MILLIS, e -> drain());
+        frameTimer.setRepeats(false);
+    }
+
+    public void addTextToWindow(String text, Color color) {
+        pending.add(new Run(text, color));
+        scheduleDrain();
+    }
+
+    public void addStyledText(StyledText text) {
+        for (int i = 0; i < text.size(); i++) {
+            pending.add(new Run(text.getText(i), text.getColor(i)));
+        }
+        scheduleDrain();
+    }
+
+    public void clear() {
+        pending.add(CLEAR); // cleared in order with the text around it
+    }
+
+    /**
+     * Sets how many lines the window keeps before it starts dropping the oldest ones.
+     *
+     * @param maxLines The most lines to keep, or 0 to keep every line until the next clear().
+     */
+    public void setScrollbackLines(int maxLines) {
+        scrollbackLines = maxLines;
+        SwingUtilities.invokeLater(() -> doc.setMaxLines(maxLines));
+    }
+
+    public int getScrollbackLines() {
+        return scrollbackLines;
+    }
+
+    /**
+     * @return The number of complete lines shown, as of the last time queued text was drawn.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return The size of the text held in the document (two bytes per character), as of the last time queued text was drawn.
+     */
+    public long getDocumentBytes() {
+        return (long) documentLength * Character.BYTES;
+    }
+
+    /**
+     * Asks for everything queued so far to be drawn now instead of at the end of the frame.
+     */
+    public void flush() {
+        if (!pending.isEmpty()) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    /**
+     * Waits until everything queued so far has been added to the document.
+     */
+    public void awaitFlush() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            drain();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(this::drain);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            frameTimer.restart(); // the rest of this frame's text is drawn along with it
+        }
+    }
+
+    // runs on the event thread: moves all queued runs into the document at once
+    private void drain() {
+        drainScheduled.set(false);
+        Run run = pending.poll();
+        while (run != null) {
+            if (run == CLEAR) {
+                // starting over with an empty document is much cheaper than removing everything from the old one
+                doc = new BatchDocument(scrollbackLines);
+                textPane.setStyledDocument(doc);
+            } else {
+                doc.addToBatch(run.text, STYLES.get(run.color));
+            }
+            run = pending.poll();
+        }
+        doc.appendBatch();
+        lineCount = doc.getLineCount();
+        documentLength = doc.getLength();
+    }
+
+    /**
+     * A piece of text waiting to be drawn in one color.
+     */
+    private static class Run {
+        private final String text;
+        private final Color color;
+
+        Run(String text, Color color) {
+            this.text = text;
+            this.color = color;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package treasurehunter;
+
+/**
+ * The different questions the game asks the player.<p>
+ * Interactive players can ignore these; a Strategy uses them to know what kind of answer is wanted.
+ */
+
+public enum Prompt {
+    NAME,       // "What's your name, Hunter?"
+    DIFFICULTY, // "Easy, normal, or hard mode?"
+    MOVE,       // "What's your next move?"
+    BUY_ITEM,   // "What're you lookin' to buy?"
+    SELL_ITEM,  // "What're you lookin' to sell?"
+    CONFIRM,    // "Buy it (y/n)?" / "Sell it (y/n)?"
+    DESTINATION // "Which road do you take?" (only when the game has a World)
+}
@@ -0,0 +1,48 @@
+package treasurehunter;
+
+/**
+ * A Strategy that picks a random move every turn.<p>
+ * It shops for the item needed to leave town before trying to move on, so games don't stall in the first town.
+ */
+
+public class RandomStrategy implements Strategy {
+    // constants
+    private static final String[] MOVES = {"b", "s", "e", "m", "l", "h", "d"};
+    private static final String[] ITEMS = {"water", "rope", "boots", "machete", "horse", "boat", "shovel"};
+
+    // instance variables
+    private String difficulty;
+    private GameRandom random;
+
+    /**
+     * @param difficulty The answer to give at the difficulty prompt ("e", "n", "h" or "s").
+     * @param random Where the strategy's own random choices come from.
+     */
+    public RandomStrategy(String difficulty, GameRandom random) {
+        this.difficulty = difficulty;
+        this.random = random;
+    }
+
+    public String respond(Prompt prompt, Hunter hunter, Town town) {
+        if (prompt == Prompt.NAME) {
+            return "bot";
+        } else if (prompt == Prompt.DIFFICULTY) {
+            return difficulty;
+        } else if (prompt == Prompt.BUY_ITEM) {
+            Terrain terrain = town.getTerrain();
+            if (!hunter.hasItemInKit(terrain.getNeededItem())) {
+                return terrain.getNeededItemName();
+            }
+            return ITEMS[random.nextInt(ITEMS.length)];
+        } else if (prompt == Prompt.SELL_ITEM) {
+            return ITEMS[random.nextInt(ITEMS.length)];
+        } else if (prompt == Prompt.CONFIRM) {
+            return "y";
+        } else if (prompt == Prompt.DESTINATION) {
+            // a town has at most four roads; a number past the last one is turned down by the game
+            return String.valueOf(random.nextInt(4) + 1);
+        } else {
+            return MOVES[random.nextInt(MOVES.length)];
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package treasurehunter;
+
+import java.util.Arrays;
+
+/**
+ * Works out the cheapest way, on average, to get from where the hunter is to a town holding a treasure they
+ * still need, in a World.<p>
+ * Leaving a town means crossing its terrain, which takes the matching item, and outside easy mode the item
+ * breaks half the time. So a crossing costs the item's price if the hunter doesn't have it yet, plus the chance
+ * of it breaking times its price (what it costs on average to replace it). Both are at the prices of the town
+ * being left, since towns' shops differ. Buying an item in a cheap town for a crossing further on isn't
+ * considered; items are always bought just before they are needed.<p>
+ * The search is Dijkstra's algorithm over (town, kit) states, where the kit is which of the six crossing items
+ * the hunter carries. Treasure is so common that the nearest one is usually a few roads away, so the search
+ * stops at the first town that has one and only ever looks at a tiny corner of the world. The heap and the
+ * table of visited states are plain arrays that are reused from one plan to the next, so planning doesn't
+ * allocate once they have grown to size.
+ */
+
+public class RoutePlanner {
+    // constants
+    private static final int TERRAINS = 6;
+    private static final int KIT_BITS = 6;
+    private static final long MILLI = 1000; // costs are kept in thousandths of a gold piece
+    private static final long MOVE_COST = 1; // so that of two routes that cost the same, the shorter one wins
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // instance variables
+    private final World world;
+    private final Item[] terrainItems;
+    private final int[] baseCost;       // by terrain index, in gold; -1 if no shop sells the item
+    private final double[] breakChance; // by terrain index
+    private final int[] roads;
+
+    // the table of states seen by the current search; a slot belongs to it if its stamp matches
+    private long[] stateKeys;
+    private long[] stateCosts;
+    private long[] stateParents;
+    private byte[] stateBought;
+    private int[] stateStamps;
+    private int stamp;
+    private int stateCount;
+
+    // the priority queue, as a binary heap of (cost, state) pairs
+    private long[] heapCosts;
+    private long[] heapStates;
+    private int heapSize;
+
+    /**
+     * @param world The world to plan in.
+     * @param shop A shop at the game's difficulty and the base prices, for the base cost of each item and, from its
+     *             ItemRegistry, how easily each one breaks.
+     * @param breakChance The difficulty's chance of an item breaking each time it is used to cross a terrain,
+     *                    before the item's own break factor is applied.
+     */
+    public RoutePlanner(World world, Shop shop, double breakChance) {
+        this.world = world;
+        terrainItems = new Item[TERRAINS];
+        baseCost = new int[TERRAINS];
+        this.breakChance = new double[TERRAINS];
+        for (int i = 0; i < TERRAINS; i++) {
+            terrainItems[i] = Town.terrainFor(i).getItem();
+            baseCost[i] = shop.getCostOfItem(terrainItems[i].id());
+            // the same chance as Town.checkItemBreak()
+            this.breakChance[i] = breakChance * shop.getItems().getBreakFactor(terrainItems[i].id());
+        }
+        roads = new int[4];
+        stateKeys = new long[INITIAL_CAPACITY];
+        stateCosts = new long[INITIAL_CAPACITY];
+        stateParents = new long[INITIAL_CAPACITY];
+        stateBought = new byte[INITIAL_CAPACITY];
+        stateStamps = new int[INITIAL_CAPACITY];
+        stamp = 0;
+        heapCosts = new long[INITIAL_CAPACITY];
+        heapStates = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * A route to a treasure and what to buy along the way.
+     */
+    public static class Plan {
+        private final int[] towns;
+        private final Item[] purchases;
+        private final double expectedCost;
+        private final Item treasure;
+
+        Plan(int[] towns, Item[] purchases, double expectedCost, Item treasure) {
+            this.towns = towns;
+            this.purchases = purchases;
+            this.expectedCost = expectedCost;
+            this.treasure = treasure;
+        }
+
+        /**
+         * @return The towns on the route, starting with the hunter's own town and ending with the treasure's.
+         */
+        public int[] getTowns() {
+            return towns;
+        }
+
+        /**
+         * @return For each road on the route, the item to buy before taking it, or null if the hunter already has it.
+         */
+        public Item[] getPurchases() {
+            return purchases;
+        }
+
+        /**
+         * @return The gold the route costs on average, counting both purchases and replacing broken items.
+         */
+        public double getExpectedCost() {
+            return expectedCost;
+        }
+
+        public Item getTreasure() {
+            return treasure;
+        }
+
+        public String toString() {
+            StringBuilder str = new StringBuilder();
+            str.append("town ").append(towns[0]);
+            for (int i = 0; i < purchases.length; i++) {
+                if (purchases[i] != null) {
+                    str.append(" (buy ").append(purchases[i].getItemName()).append(")");
+                }
+                str.append(" -> town ").append(towns[i + 1]);
+            }
+            str.append(": ").append(treasure.getItemName());
+            str.append(String.format(", about %.1f gold", expectedCost));
+            return str.toString();
+        }
+    }
+
+    /**
+     * Finds the cheapest route, on average, to the nearest unsearched town holding a treasure the hunter doesn't have.
+     *
+     * @param from The town the hunter is in.
+     * @param kitMask The hunter's kit, as from Hunter.getKitMask().
+     * @param gold The hunter's gold; routes that cost more than this on average aren't considered.
+     * @param treasureMask The hunter's treasures, as from Hunter.getTreasureMask().
+     * @return The route, or null if no treasure can be reached for the gold.
+     */
+    public Plan plan(int from, long kitMask, int gold, long treasureMask) {
+        int missing = 0;
+        for (int i = 0; i < 3; i++) {
+            if ((treasureMask & Town.TREASURES[i].bit()) == 0) {
+                missing |= 1 << i;
+            }
+        }
+        if (missing == 0 || gold < 0) {
+            return null;
+        }
+        int kit = 0;
+        for (int i = 0; i < TERRAINS; i++) {
+            if ((kitMask & terrainItems[i].bit()) != 0) {
+                kit |= 1 << i;
+            }
+        }
+
+        startSearch();
+        long budget = gold * MILLI + (MILLI - 1);
+        long start = stateKey(from, kit);
+        relax(start, 0, -1, (byte) -1);
+        while (heapSize > 0) {
+            long cost = heapCosts[0];
+            long state = heapStates[0];
+            pop();
+            int slot = find(state);
+            if (stateCosts[slot] < cost) {
+                continue; // already reached more cheaply
+            }
+            if (cost > budget) {
+                return null;
+            }
+            int town = (int) (state >>> KIT_BITS);
+            kit = (int) (state & ((1 << KIT_BITS) - 1));
+            int treasure = world.treasureIndexOf(town);
+            if ((missing & (1 << treasure)) != 0 && !world.isSearched(town)) {
+                return buildPlan(slot, Town.TREASURES[treasure]);
+            }
+
+            // leaving this town takes the item for its terrain; buy it first if it isn't in the kit
+            int terrain = world.terrainIndexOf(town);
+            long price = buyCost(town, terrain);
+            long step = wearCost(terrain, price) + MOVE_COST;
+            int nextKit = kit;
+            byte bought = -1;
+            if ((kit & (1 << terrain)) == 0) {
+                if (price < 0) {
+                    continue; // no shop sells the item, so there's no way out of this town without it
+                }
+                step += price;
+                nextKit |= 1 << terrain;
+                bought = (byte) terrain;
+            }
+            int count = world.neighbors(town, roads);
+            for (int i = 0; i < count; i++) {
+                relax(stateKey(roads[i], nextKit), cost + step, state, bought);
+            }
+        }
+        return null;
+    }
+
+    // what the item for a terrain costs in a town, in thousandths of gold, or -1 if no shop sells it
+    private long buyCost(int town, int terrain) {
+        if (baseCost[terrain] < 0) {
+            return -1;
+        }
+        return Shop.priceAt(baseCost[terrain], world.priceMultiplierOf(town)) * MILLI;
+    }
+
+    // what replacing a broken item costs on average, in thousandths of gold;
+    // an item no shop sells can't be replaced, so it is counted as costing nothing
+    private long wearCost(int terrain, long buyCost) {
+        return buyCost < 0 ? 0 : Math.round(breakChance[terrain] * buyCost);
+    }
+
+    private static long stateKey(int town, int kit) {
+        return ((long) town << KIT_BITS) | kit;
+    }
+
+    private Plan buildPlan(int goalSlot, Item treasure) {
+        int steps = 0;
+        for (long state = stateKeys[goalSlot]; stateParents[find(state)] >= 0; state = stateParents[find(state)]) {
+            steps++;
+        }
+        int[] towns = new int[steps + 1];
+        Item[] purchases = new Item[steps];
+        double expectedCost = 0;
+        long state = stateKeys[goalSlot];
+        for (int i = steps; i >= 0; i--) {
+            int slot = find(state);
+            towns[i] = (int) (state >>> KIT_BITS);
+            if (i > 0) {
+                int parentTown = (int) (stateParents[slot] >>> KIT_BITS);
+                int terrain = world.terrainIndexOf(parentTown);
+                long price = buyCost(parentTown, terrain);
+                expectedCost += wearCost(terrain, price);
+                if (stateBought[slot] >= 0) {
+                    purchases[i - 1] = terrainItems[stateBought[slot]];
+                    expectedCost += price;
+                }
+            }
+            state = stateParents[slot];
+        }
+        return new Plan(towns, purchases, expectedCost / MILLI, treasure);
+    }
+
+    // search state table: open addressing with linear probing
+
+    private void startSearch() {
+        stamp++;
+        if (stamp == 0) {
+            // the stamps have wrapped around, so old slots could look current
+            Arrays.fill(stateStamps, 0);
+            stamp = 1;
+        }
+        stateCount = 0;
+        heapSize = 0;
+    }
+
+    private int slotFor(long state, long[] keys, int[] stamps) {
+        int mask = keys.length - 1;
+        int slot = (int) ((state * 0x9e3779b97f4a7c15L) >>> 40) & mask;
+        while (stamps[slot] == stamp && keys[slot] != state) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int find(long state) {
+        return slotFor(state, stateKeys, stateStamps);
+    }
+
+    private void relax(long state, long cost, long parent, byte bought) {
+        int slot = find(state);
+        if (stateStamps[slot] == stamp) {
+            if (stateCosts[slot] <= cost) {
+                return;
+            }
+        } else {
+            if (stateCount * 2 >= stateKeys.length) {
+                grow();
+                slot = find(state);
+            }
+            stateStamps[slot] = stamp;
+            stateKeys[slot] = state;
+            stateCount++;
+        }
+        stateCosts[slot] = cost;
+        stateParents[slot] = parent;
+        stateBought[slot] = bought;
+        push(cost, state);
+    }
+
+    private void grow() {
+        long[] keys = stateKeys;
+        long[] costs = stateCosts;
+        long[] parents = stateParents;
+        byte[] bought = stateBought;
+        int[] stamps = stateStamps;
+        int capacity = keys.length * 2;
+        stateKeys = new long[capacity];
+        stateCosts = new long[capacity];
+        stateParents = new long[capacity];
+        stateBought = new byte[capacity];
+        stateStamps = new int[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (stamps[i] == stamp) {
+                int slot = find(keys[i]);
+                stateStamps[slot] = stamp;
+                stateKeys[slot] = keys[i];
+                stateCosts[slot] = costs[i];
+                stateParents[slot] = parents[i];
+                stateBought[slot] = bought[i];
+            }
+        }
+    }
+
+    // binary heap
+
+    private void push(long cost, long state) {
+        if (heapSize == heapCosts.length) {
+            heapCosts = Arrays.copyOf(heapCosts, heapSize * 2);
+            heapStates = Arrays.copyOf(heapStates, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapCosts[parent] <= cost) {
+                break;
+            }
+            heapCosts[i] = heapCosts[parent];
+            heapStates[i] = heapStates[parent];
+            i = parent;
+        }
+        heapCosts[i] = cost;
+        heapStates[i] = state;
+    }
+
+    private void pop() {
+        heapSize--;
+        long cost = heapCosts[heapSize];
+        long state = heapStates[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                child++;
+            }
+            if (heapCosts[child] >= cost) {
+                break;
+            }
+            heapCosts[i] = heapCosts[child];
+            heapStates[i] = heapStates[child];
+            i = child;
+        }
+        heapCosts[i] = cost;
+        heapStates[i] = state;
+    }
+}
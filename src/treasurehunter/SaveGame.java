@@ -0,0 +1,154 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A save file for one game, kept in memory-mapped slots so the game can be saved every turn.<p>
+ * The file holds two slots and each save goes into the older one, so if the game dies part way
+ * through a save the slot before it is still good. A slot is a small header (magic number, format
+ * version, save sequence, payload length and CRC32) followed by the payload that
+ * TreasureHunter.writeSnapshot() writes.<p>
+ * Saving only copies bytes into the mapping; the operating system writes them out to disk,
+ * so it is cheap enough to run on every turn.
+ */
+
+public class SaveGame implements AutoCloseable {
+    // constants
+    static final int MAGIC = 0x54485356; // "THSV"
+    static final short VERSION = 4;
+    private static final int SLOT_SIZE = 4096;
+    private static final int SLOTS = 2;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4 + 4;
+
+    // instance variables
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final ByteBuffer scratch;
+    private final CRC32 crc;
+    private long sequence;
+
+    /**
+     * Opens the save file, creating it if it doesn't exist.
+     *
+     * @param file Where the game is saved.
+     * @throws IOException If the file can't be opened or mapped.
+     */
+    public SaveGame(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLOT_SIZE * SLOTS);
+        scratch = ByteBuffer.allocate(SLOT_SIZE - HEADER_SIZE);
+        crc = new CRC32();
+        sequence = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isValid(slot)) {
+                sequence = Math.max(sequence, map.getLong(slot * SLOT_SIZE + 6));
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of the game over the older of the two slots.
+     *
+     * @param game The game to save.
+     */
+    public void save(TreasureHunter game) {
+        scratch.clear();
+        try {
+            game.writeSnapshot(scratch);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("game is too big to fit in a save slot", e);
+        }
+        scratch.flip();
+        int length = scratch.remaining();
+        sequence++;
+        int base = (int) (sequence % SLOTS) * SLOT_SIZE;
+
+        crc.reset();
+        crc.update(scratch);
+        scratch.flip();
+
+        // the magic number goes in last, so a slot is never valid until the rest of it is written
+        map.putInt(base, 0);
+        map.put(base + HEADER_SIZE, scratch, 0, length);
+        map.putShort(base + 4, VERSION);
+        map.putLong(base + 6, sequence);
+        map.putInt(base + 14, length);
+        map.putInt(base + 18, (int) crc.getValue());
+        map.putInt(base, MAGIC);
+    }
+
+    /**
+     * @return true if the file holds a saved game that load() can restore.
+     */
+    public boolean hasGame() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isValid(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restores the game from the newest good slot.
+     *
+     * @param game The game to restore into.
+     * @return true if there was a saved game to restore, false if the file is empty or spoiled.
+     */
+    public boolean load(TreasureHunter game) {
+        int best = -1;
+        long bestSequence = -1;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isValid(slot) && map.getLong(slot * SLOT_SIZE + 6) > bestSequence) {
+                best = slot;
+                bestSequence = map.getLong(slot * SLOT_SIZE + 6);
+            }
+        }
+        if (best < 0) {
+            return false;
+        }
+        int base = best * SLOT_SIZE;
+        game.readSnapshot(map.slice(base + HEADER_SIZE, map.getInt(base + 14)));
+        return true;
+    }
+
+    /**
+     * Spoils both slots, so the next load() finds nothing; used once a game is over.
+     */
+    public void clear() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            map.putInt(slot * SLOT_SIZE, 0);
+        }
+    }
+
+    /**
+     * Writes the mapping out to disk and closes the file.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    private boolean isValid(int slot) {
+        int base = slot * SLOT_SIZE;
+        if (map.getInt(base) != MAGIC || map.getShort(base + 4) != VERSION) {
+            return false;
+        }
+        int length = map.getInt(base + 14);
+        if (length < 0 || length > SLOT_SIZE - HEADER_SIZE) {
+            return false;
+        }
+        crc.reset();
+        crc.update(map.slice(base + HEADER_SIZE, length));
+        return (int) crc.getValue() == map.getInt(base + 18);
+    }
+}
@@ -0,0 +1,75 @@
+package treasurehunter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Supplies the lines of a script file, one per prompt.<p>
+ * The whole file is read and decoded in one go when the script is opened, so playing it never waits on
+ * the disk; each line is then cut out of the text as the game asks for it. Lines may end in \n or \r\n.
+ */
+
+public class ScriptInput implements InputSource {
+    // instance variables
+    private final String text;
+    private int position;
+    private int linesRead;
+
+    /**
+     * Reads the whole script into memory.
+     *
+     * @param file The script, in UTF-8.
+     * @throws IOException If the file can't be read.
+     */
+    public ScriptInput(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+            bytes.flip();
+            text = StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+        position = 0;
+        linesRead = 0;
+    }
+
+    /**
+     * @return true if the script has lines left.
+     */
+    public boolean hasNextLine() {
+        return position < text.length();
+    }
+
+    /**
+     * @return How many lines the game has read so far.
+     */
+    public int getLinesRead() {
+        return linesRead;
+    }
+
+    /**
+     * @throws NoSuchElementException If the script has run out.
+     */
+    public String nextLine(Prompt prompt) {
+        if (!hasNextLine()) {
+            throw new NoSuchElementException("script ended at prompt " + prompt + " after " + linesRead + " lines");
+        }
+        int end = text.indexOf('\n', position);
+        if (end < 0) {
+            end = text.length();
+        }
+        int next = end + 1;
+        if (end > position && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        String line = text.substring(position, end);
+        position = next;
+        linesRead++;
+        return line;
+    }
+}
@@ -0,0 +1,132 @@
+package treasurehunter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many GameSessions in one JVM, each on a thread of its own.<p>
+ * On Java 21 and later the threads are virtual, so tens of thousands of sessions that are mostly waiting
+ * for their players cost only their heap. On older Java the host falls back to daemon platform threads,
+ * which work the same way but reserve a stack each.
+ */
+
+public class SessionHost implements AutoCloseable {
+    // instance variables
+    private final ThreadFactory threads;
+    private final boolean virtual;
+    private final Set<GameSession> sessions;
+    private final AtomicLong nextId;
+    private volatile GameMetrics metrics;
+    private volatile Leaderboard leaderboard;
+
+    public SessionHost() {
+        ThreadFactory factory = virtualThreadFactory();
+        virtual = factory != null;
+        if (factory == null) {
+            factory = task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        threads = factory;
+        sessions = ConcurrentHashMap.newKeySet();
+        nextId = new AtomicLong();
+        metrics = null;
+        leaderboard = null;
+    }
+
+    /**
+     * Counts and times the turns of every session started from now on.
+     *
+     * @param metrics The metrics to record into, or null to stop.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds every session started from now on to the leaderboard when its game ends. The sessions add their games
+     * at the same time as each other, which the leaderboard is built for.
+     *
+     * @param leaderboard The leaderboard, or null to stop.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Starts a new game on its own thread.
+     *
+     * @param input Where the player's lines come from.
+     * @param output Where the game's text goes.
+     * @param random The session's random number source.
+     * @return The running session; it is dropped from the host when its game ends.
+     */
+    public GameSession start(InputSource input, OutputSink output, GameRandom random) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), input, output, random);
+        start(session);
+        return session;
+    }
+
+    /**
+     * Starts a session that was built by the caller, on its own thread.
+     *
+     * @param session The session to run; it is dropped from the host when its game ends.
+     */
+    public void start(GameSession session) {
+        GameMetrics metrics = this.metrics;
+        if (metrics != null) {
+            session.getGame().setMetrics(metrics);
+        }
+        Leaderboard leaderboard = this.leaderboard;
+        if (leaderboard != null) {
+            session.getGame().setLeaderboard(leaderboard);
+        }
+        sessions.add(session);
+        threads.newThread(() -> {
+            try {
+                session.run();
+            } finally {
+                sessions.remove(session);
+            }
+        }).start();
+    }
+
+    /**
+     * @return How many sessions are still being played.
+     */
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    /**
+     * @return true if sessions run on virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Closes every session that is still being played.
+     */
+    public void close() {
+        for (GameSession session : sessions) {
+            session.close();
+        }
+    }
+
+    // Thread.ofVirtual() only exists on Java 21+, and the game is built for Java 17
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "session-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
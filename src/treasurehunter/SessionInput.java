@@ -0,0 +1,81 @@
+package treasurehunter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * The input channel of one GameSession: lines are submitted from outside (a network connection, a test
+ * driver) and the game's thread waits for them.<p>
+ * While the game waits it holds no lock and, on a virtual thread, no carrier thread either, so an idle
+ * session costs little more than its queue and game objects.
+ */
+
+public class SessionInput implements InputSource {
+    // constants
+    private static final String CLOSED = new String("closed"); // told apart from real lines by identity
+
+    // instance variables
+    private final BlockingQueue<String> lines;
+    private final Consumer<Prompt> listener;
+    private volatile boolean closed;
+
+    public SessionInput() {
+        this(null);
+    }
+
+    /**
+     * @param listener Told about each prompt, on the game's thread, just before the game waits for the answer;
+     *                 may be null.
+     */
+    public SessionInput(Consumer<Prompt> listener) {
+        lines = new LinkedBlockingQueue<String>();
+        this.listener = listener;
+    }
+
+    /**
+     * Hands the game its next line. Never blocks.
+     *
+     * @param line The line the player entered.
+     */
+    public void submit(String line) {
+        lines.add(line);
+    }
+
+    /**
+     * Wakes the game if it is waiting, and makes it stop the next time it asks for a line.
+     * The game's thread isn't interrupted, since an interrupt would also close any FileChannel it is using,
+     * such as the leaderboard's, which every session shares.
+     */
+    public void close() {
+        closed = true;
+        lines.add(CLOSED);
+    }
+
+    /**
+     * Waits for the next submitted line.
+     *
+     * @throws CancellationException If the session is closed before or while the game is waiting.
+     */
+    public String nextLine(Prompt prompt) {
+        if (closed) {
+            throw new CancellationException("session closed before asking for " + prompt);
+        }
+        if (listener != null) {
+            listener.accept(prompt);
+        }
+        String line;
+        try {
+            line = lines.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("session interrupted while waiting for " + prompt);
+        }
+        if (line == CLOSED) {
+            lines.add(CLOSED); // for any later call
+            throw new CancellationException("session closed while waiting for " + prompt);
+        }
+        return line;
+    }
+}
@@ -0,0 +1,122 @@
+package treasurehunter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hosts many concurrent games in one SessionHost, each played by a scripted player with a think time between
+ * moves, and reports the heap used per session and the latency of the game's response to each line.<p>
+ * The players run off a single scheduler thread and only submit lines to the sessions' inputs, so the games
+ * themselves spend nearly all their time waiting, the way they would with real players.
+ * A line's latency runs from the player submitting it to the game asking for the next line, and is only counted
+ * once every session is up and waiting.<p>
+ * Usage: java SessionLoadTest [sessions] [turns] [thinkMillis] [seed]
+ */
+
+public class SessionLoadTest {
+    // instance variables
+    private final LatencyHistogram latency;
+    private final ScheduledExecutorService scheduler;
+    private final long thinkNanos;
+    private final CountDownLatch firstPrompts;
+
+    private SessionLoadTest(int sessions, long thinkMillis) {
+        latency = new LatencyHistogram();
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        thinkNanos = TimeUnit.MILLISECONDS.toNanos(thinkMillis);
+        firstPrompts = new CountDownLatch(sessions);
+    }
+
+    /**
+     * Plays one session by answering each prompt with a RandomStrategy move after a random think time.
+     */
+    private class ScriptedPlayer implements Consumer<Prompt> {
+        private final Strategy strategy;
+        private final GameRandom random;
+        private final SessionInput input;
+        private GameSession session;
+        private volatile long submittedAt;
+
+        ScriptedPlayer(GameRandom random) {
+            this.random = random;
+            strategy = new RandomStrategy("n", random.split());
+            input = new SessionInput(this);
+            submittedAt = 0;
+        }
+
+        // called on the session's thread, so the hunter and town are safe to read
+        public void accept(Prompt prompt) {
+            if (submittedAt == 0) {
+                firstPrompts.countDown();
+            } else {
+                latency.record(System.nanoTime() - submittedAt);
+            }
+            TreasureHunter game = session.getGame();
+            String line = strategy.respond(prompt, game.getHunter(), game.getCurrentTown());
+            // think for between half and one and a half times the think time
+            long think = thinkNanos / 2 + (long) (random.nextDouble() * thinkNanos);
+            scheduler.schedule(() -> {
+                submittedAt = System.nanoTime();
+                input.submit(line);
+            }, think, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long thinkMillis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        SessionLoadTest test = new SessionLoadTest(sessions, thinkMillis);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        List<GameSession> running = new ArrayList<GameSession>(sessions);
+        try (SessionHost host = new SessionHost()) {
+            for (int i = 0; i < sessions; i++) {
+                GameRandom random = new GameRandom(GameRandom.seedFor(seed, i));
+                ScriptedPlayer player = test.new ScriptedPlayer(random.split());
+                GameSession session = new GameSession(i, player.input, HeadlessOutput.INSTANCE, random);
+                player.session = session;
+                session.getGame().setMaxTurns(turns);
+                running.add(session);
+            }
+            // the players need their sessions before the first prompt, so the sessions are started afterwards
+            for (GameSession session : running) {
+                host.start(session);
+            }
+            test.firstPrompts.await();
+            long heapPerSession = (usedHeap() - heapBefore) / sessions;
+            // leave out the burst of starting every session at once and the collections just forced
+            test.latency.reset();
+
+            for (GameSession session : running) {
+                session.await();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d sessions on %s threads, %d turns each, %d ms think time: %.1f s%n",
+                    sessions, host.isVirtual() ? "virtual" : "platform", turns, thinkMillis, seconds);
+            System.out.printf("  heap per waiting session  %.1f KB%n", heapPerSession / 1024.0);
+            System.out.printf("  lines timed               %d%n", test.latency.getCount());
+            System.out.printf("  latency p50               %.1f us%n", test.latency.getPercentile(50) / 1e3);
+            System.out.printf("  latency p99               %.1f us%n", test.latency.getPercentile(99) / 1e3);
+            System.out.printf("  latency p99.9             %.1f us%n", test.latency.getPercentile(99.9) / 1e3);
+        } finally {
+            test.scheduler.shutdownNow();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,253 @@
+package treasurehunter;
+
+/**
+ * The Shop class controls the cost of the items in the Treasure Hunt game. <p>
+ * The Shop class also acts as a go between for the Hunter's buyItem() method. <p>
+ * Each shop works out its buying and selling prices for every item of its ItemRegistry once, when it is built,
+ * so looking up a price is just an array index. The item the customer types is looked up in the registry once,
+ * as soon as it is read, and everything after that works with its id. <p>
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class Shop {
+    // instance variables
+    private double markdown;
+    private Hunter customer;
+    private boolean samuraiMode;
+    private InputSource input;
+    private OutputSink window;
+    private EventRing events;
+    private ItemRegistry items;
+    private int[] buyPrices;  // indexed by item id; -1 if the item isn't sold
+    private int[] sellPrices; // indexed by item id
+    private int unknownSellPrice;
+    private String inventory;
+    private String inventoryWithSword;
+
+    /**
+     * The Shop constructor takes in a markdown value and leaves customer null until one enters the shop.
+     *
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param isSamuraiMode Whether swords are for sale.
+     * @param input Where the customer's answers come from.
+     * @param window Where the shopkeeper's lines are shown.
+     * @param events Where purchases and sales are published.
+     */
+
+    public Shop(double markdown, boolean isSamuraiMode, InputSource input, OutputSink window, EventRing events) {
+        this(markdown, isSamuraiMode, 1, ItemRegistry.STANDARD, input, window, events);
+    }
+
+    /**
+     * Builds a shop that sells the items of a catalog, at prices that differ from the base costs by a multiplier,
+     * so that towns can differ.
+     *
+     * @param markdown Percentage of markdown for selling items in decimal format.
+     * @param isSamuraiMode Whether swords are for sale.
+     * @param priceMultiplier What this town's prices are compared to the base costs (1 for the base costs).
+     * @param items The items of the game, with their base costs.
+     * @param input Where the customer's answers come from.
+     * @param window Where the shopkeeper's lines are shown.
+     * @param events Where purchases and sales are published.
+     */
+    public Shop(double markdown, boolean isSamuraiMode, double priceMultiplier, ItemRegistry items, InputSource input,
+                OutputSink window, EventRing events) {
+        this.input = input;
+        this.window = window;
+        this.events = events;
+        this.markdown = markdown;
+        customer = null; // customer is set in the enter method
+        samuraiMode = isSamuraiMode;
+        this.items = items;
+
+        buyPrices = new int[items.size()];
+        sellPrices = new int[items.size()];
+        for (int i = 0; i < buyPrices.length; i++) {
+            buyPrices[i] = priceAt(items.getCost(i), priceMultiplier);
+            sellPrices[i] = (int) (buyPrices[i] * markdown);
+        }
+        unknownSellPrice = (int) (-1 * markdown);
+        inventory = renderInventory(false);
+        inventoryWithSword = renderInventory(true);
+    }
+
+    /**
+     * Method for entering the shop.
+     *
+     * @param hunter the Hunter entering the shop
+     * @param buyOrSell String that determines if hunter is "B"uying or "S"elling
+     * @return a String to be used for printing in the latest news
+     */
+    public String enter(Hunter hunter, String buyOrSell) {
+        customer = hunter;
+        if (buyOrSell.equals("b")) {
+            window.addTextToWindow("Welcome to the shop! We have the finest wares in town." + "\n", Colors.leafGreen);
+            window.addTextToWindow("Currently we have the following items:" + "\n", Colors.leafGreen);
+            window.addTextToWindow(inventory(samuraiMode) + "\n", Colors.purpleGray);
+            window.addTextToWindow("What're you lookin' to buy? " + "\n", Colors.leafGreen);
+            window.flush();
+            int item = items.idOf(input.nextLine(Prompt.BUY_ITEM).toLowerCase());
+            if (samuraiMode && item == Item.SWORD.id()){
+                if (hunter.hasItemInKit(Item.SWORD.id())){
+                    window.addTextToWindow("Now, let's not be too greedy having another sword" + "\n", Colors.leafGreen);
+                } else {
+                    buyItem(item);
+                }
+            } else {
+                int cost = checkMarketPrice(item, true);
+                if (cost < 0) {
+                    window.addTextToWindow("We ain't got none of those." + "\n", Colors.leafGreen);
+                } else if (hunter.hasItemInKit(Item.SWORD.id())) {
+                    window.addTextToWindow("The sword intimidates the shopkeeper and he gives the item for free" + "\n", Colors.leafGreen);
+                    buyItem(item);
+                } else {
+                    window.addTextToWindow("It'll cost you " + cost + " gold. Buy it (y/n)? " + "\n", Colors.leafGreen);
+                    window.flush();
+                    String option = input.nextLine(Prompt.CONFIRM).toLowerCase();
+                    if (option.equals("y")) {
+                        buyItem(item);
+                    }
+                }
+            }
+        } else {
+            window.addTextToWindow("What're you lookin' to sell? " + "\n", Colors.leafGreen);
+            window.addTextToWindow("You currently have the following items: " + customer.getInventory() + "\n", Colors.purpleGray);
+            window.flush();
+            int item = items.idOf(input.nextLine(Prompt.SELL_ITEM).toLowerCase());
+            int cost = checkMarketPrice(item, false);
+            if (cost == 0) {
+                window.addTextToWindow("We don't want none of those." + "\n", Colors.leafGreen);
+            } else {
+                window.addTextToWindow("It'll get you " + cost + " gold. Sell it (y/n)? " + "\n", Colors.leafGreen);
+                window.flush();
+                String option = input.nextLine(Prompt.CONFIRM).toLowerCase();
+                if (option.equals("y")) {
+                    sellItem(item);
+                }
+            }
+        }
+        return "You left the shop";
+    }
+
+    /**
+     * A method that returns a string showing the items available in the shop
+     * (all shops sell the same items).
+     *
+     * @return the string representing the shop's items available for purchase and their prices.
+     */
+    public String inventory(boolean samuraiMode) {
+        if (samuraiMode) {
+            return inventoryWithSword;
+        }
+        return inventory;
+    }
+
+    private String renderInventory(boolean samuraiMode) {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < buyPrices.length; i++) {
+            if (buyPrices[i] < 0 || items.isTreasure(i) || (i == Item.SWORD.id() && !samuraiMode)) {
+                continue;
+            }
+            String name = items.getName(i);
+            str.append(Character.toUpperCase(name.charAt(0))).append(name, 1, name.length());
+            str.append(": ").append(buyPrices[i]).append(" gold\n");
+        }
+        return str.toString();
+    }
+
+    /**
+     * A method that lets the customer (a Hunter) buy an item.
+     *
+     * @param item The id of the item being bought.
+     */
+    public void buyItem(int item) {
+        int costOfItem = checkMarketPrice(item, true);
+        int goldBefore = customer.getHunterGold();
+        if (customer.buyItem(item, costOfItem)) {
+            events.publish(EventType.PURCHASE, goldBefore - customer.getHunterGold(), standardItem(item), items.getName(item), false);
+        } else {
+            window.addTextToWindow("Hmm, either you don't have enough gold or you've already got one of those!" + "\n", Colors.leafGreen);
+        }
+    }
+
+    /**
+     * A pathway method that lets the Hunter sell an item.
+     *
+     * @param item The id of the item being sold.
+     */
+    public void sellItem(int item) {
+        int buyBackPrice = checkMarketPrice(item, false);
+        if (customer.sellItem(item, buyBackPrice)) {
+            events.publish(EventType.SALE, buyBackPrice, standardItem(item), items.getName(item), false);
+        } else {
+            window.addTextToWindow("Stop stringin' me along!" + "\n", Colors.leafGreen);
+        }
+    }
+
+    /**
+     * Determines and returns the cost of buying or selling an item.
+     *
+     * @param item The id of the item in question, or ItemRegistry.NONE.
+     * @param isBuying Whether the item is being bought or sold.
+     * @return The cost of buying or selling the item based on the isBuying parameter; -1 for buying a treasure.
+     */
+    public int checkMarketPrice(int item, boolean isBuying) {
+        if (item != ItemRegistry.NONE && items.isTreasure(item)) {
+            return isBuying ? -1 : getBuyBackCost(ItemRegistry.NONE);
+        }
+        if (isBuying) {
+            return getCostOfItem(item);
+        } else {
+            return getBuyBackCost(item);
+        }
+    }
+
+    /**
+     * Looks up the item entered in this shop's price table.
+     *
+     * @param item The id of the item being checked for cost, or ItemRegistry.NONE.
+     * @return The cost of the item or -1 if the item is not sold here.
+     */
+    public int getCostOfItem(int item) {
+        if (item == ItemRegistry.NONE) {
+            return -1;
+        }
+        return buyPrices[item];
+    }
+
+    /**
+     * Looks up the price this shop pays for an item, with the markdown already applied.
+     *
+     * @param item The id of the item being sold, or ItemRegistry.NONE.
+     * @return The sell price of the item.
+     */
+    public int getBuyBackCost(int item) {
+        if (item == ItemRegistry.NONE) {
+            return unknownSellPrice;
+        }
+        return sellPrices[item];
+    }
+
+    /**
+     * @return The items this shop trades in.
+     */
+    public ItemRegistry getItems() {
+        return items;
+    }
+
+    /**
+     * Works out what an item costs in a town.
+     *
+     * @param baseCost The item's base cost, or -1 if shops don't sell it.
+     * @param priceMultiplier The town's price multiplier.
+     * @return The town's price, or -1 if shops don't sell the item.
+     */
+    static int priceAt(int baseCost, double priceMultiplier) {
+        return baseCost < 0 ? baseCost : (int) Math.round(baseCost * priceMultiplier);
+    }
+
+    // events name standard items by Item as well, for consumers that count them
+    private static Item standardItem(int item) {
+        return item < Item.count() ? Item.fromIndex(item) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,326 @@
+package treasurehunter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds up statistics over any number of games as they are played, in memory that doesn't grow with the number
+ * of games: how games end, how long they last and how long winning takes, how much gold the survivors finish
+ * with, how often brawls are won and lost, and how often each item breaks when crossing its terrain.<p>
+ * Each game is followed by a Tally of its own, which counts the game's events in plain fields on the game's
+ * thread and adds them to the shared totals once when the game ends. The totals are LongAdders and striped
+ * LatencyHistograms, so any number of threads can add to them at once without locking, and a snapshot() can be
+ * taken at any time, even part way through a run. Separate runs can be combined with merge().<p>
+ * Every game that is lost is lost to a brawl, so the brawl death rate is the share of games lost.<p>
+ * Usage: java SimulationStats [games] [difficulty] [maxTurns] [seed]
+ */
+
+public class SimulationStats {
+    // constants
+    private static final int MAX_STRIPES = 8;
+    private static final double[] PERCENTILES = {50, 90, 99};
+    private static final long REPORT_MILLIS = 1000;
+
+    // instance variables
+    private final LongAdder games;
+    private final LongAdder[] outcomes;     // by Outcome ordinal
+    private final LongAdder turns;
+    private final LongAdder brawlsWon;
+    private final LongAdder brawlsLost;
+    private final LongAdder[] crossings;    // by Item ordinal
+    private final LongAdder[] breaks;       // by Item ordinal
+    private final LatencyHistogram gameTurns;
+    private final LatencyHistogram turnsToWin;
+    private final LatencyHistogram finalGold; // of games that weren't lost, since a lost game always ends in debt
+
+    public SimulationStats() {
+        int stripes = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors());
+        games = new LongAdder();
+        outcomes = newAdders(Outcome.values().length);
+        turns = new LongAdder();
+        brawlsWon = new LongAdder();
+        brawlsLost = new LongAdder();
+        crossings = newAdders(Item.count());
+        breaks = newAdders(Item.count());
+        gameTurns = new LatencyHistogram(stripes);
+        turnsToWin = new LatencyHistogram(stripes);
+        finalGold = new LatencyHistogram(stripes);
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Counts the events of one game. It is fed on the game's thread, so it needs no synchronization of its own.
+     */
+    public class Tally implements EventConsumer {
+        private final TreasureHunter game;
+        private final long[] gameCrossings; // by Item ordinal
+        private final long[] gameBreaks;    // by Item ordinal
+        private long gameBrawlsWon;
+        private long gameBrawlsLost;
+
+        private Tally(TreasureHunter game) {
+            this.game = game;
+            gameCrossings = new long[Item.count()];
+            gameBreaks = new long[Item.count()];
+            gameBrawlsWon = 0;
+            gameBrawlsLost = 0;
+        }
+
+        public void onEvent(GameEvent event, long sequence, boolean endOfBatch) {
+            EventType type = event.getType();
+            if (type == EventType.TERRAIN_CROSSED) {
+                gameCrossings[event.getItem().ordinal()]++;
+            } else if (type == EventType.ITEM_BROKE) {
+                gameBreaks[event.getItem().ordinal()]++;
+            } else if (type == EventType.BRAWL_WON) {
+                gameBrawlsWon++;
+            } else if (type == EventType.BRAWL_LOST) {
+                gameBrawlsLost++;
+            }
+        }
+
+        /**
+         * Adds the game to the totals; call once it is over.
+         */
+        public void finish() {
+            Outcome outcome = game.getOutcome();
+            games.increment();
+            outcomes[outcome.ordinal()].increment();
+            turns.add(game.getTurns());
+            gameTurns.record(game.getTurns());
+            if (outcome == Outcome.WON) {
+                turnsToWin.record(game.getTurns());
+            }
+            if (outcome != Outcome.LOST) {
+                finalGold.record(game.getHunter().getHunterGold());
+            }
+            brawlsWon.add(gameBrawlsWon);
+            brawlsLost.add(gameBrawlsLost);
+            for (int i = 0; i < gameCrossings.length; i++) {
+                if (gameCrossings[i] != 0) {
+                    crossings[i].add(gameCrossings[i]);
+                }
+                if (gameBreaks[i] != 0) {
+                    breaks[i].add(gameBreaks[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts following a game; must be called before the game starts.
+     *
+     * @param game The game.
+     * @return The game's tally; call finish() on it once the game is over.
+     */
+    public Tally watch(TreasureHunter game) {
+        Tally tally = new Tally(game);
+        game.followEvents(tally);
+        return tally;
+    }
+
+    /**
+     * Adds the totals of another run to this one.
+     *
+     * @param other The other run's statistics.
+     */
+    public void merge(SimulationStats other) {
+        games.add(other.games.sum());
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i].add(other.outcomes[i].sum());
+        }
+        turns.add(other.turns.sum());
+        brawlsWon.add(other.brawlsWon.sum());
+        brawlsLost.add(other.brawlsLost.sum());
+        for (int i = 0; i < crossings.length; i++) {
+            crossings[i].add(other.crossings[i].sum());
+            breaks[i].add(other.breaks[i].sum());
+        }
+        gameTurns.add(other.gameTurns);
+        turnsToWin.add(other.turnsToWin);
+        finalGold.add(other.finalGold);
+    }
+
+    /**
+     * Copies the totals as they stand. Games that finish while the copy is being taken may be only partly in it.
+     *
+     * @return The copy.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * The totals at one moment.
+     */
+    public static class Snapshot {
+        private final long games;
+        private final long[] outcomes;
+        private final long turns;
+        private final long brawlsWon;
+        private final long brawlsLost;
+        private final long[] crossings;
+        private final long[] breaks;
+        private final LatencyHistogram gameTurns;
+        private final LatencyHistogram turnsToWin;
+        private final LatencyHistogram finalGold;
+
+        private Snapshot(SimulationStats stats) {
+            games = stats.games.sum();
+            outcomes = sums(stats.outcomes);
+            turns = stats.turns.sum();
+            brawlsWon = stats.brawlsWon.sum();
+            brawlsLost = stats.brawlsLost.sum();
+            crossings = sums(stats.crossings);
+            breaks = sums(stats.breaks);
+            gameTurns = copy(stats.gameTurns);
+            turnsToWin = copy(stats.turnsToWin);
+            finalGold = copy(stats.finalGold);
+        }
+
+        private static long[] sums(LongAdder[] adders) {
+            long[] sums = new long[adders.length];
+            for (int i = 0; i < adders.length; i++) {
+                sums[i] = adders[i].sum();
+            }
+            return sums;
+        }
+
+        private static LatencyHistogram copy(LatencyHistogram histogram) {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(histogram);
+            return copy;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getCount(Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        /**
+         * @return The share of games that ended in a brawl the hunter couldn't pay for.
+         */
+        public double getBrawlDeathRate() {
+            return games == 0 ? 0 : (double) outcomes[Outcome.LOST.ordinal()] / games;
+        }
+
+        /**
+         * @return The share of brawls that were won.
+         */
+        public double getBrawlWinRate() {
+            long brawls = brawlsWon + brawlsLost;
+            return brawls == 0 ? 0 : (double) brawlsWon / brawls;
+        }
+
+        public double getMeanTurns() {
+            return games == 0 ? 0 : (double) turns / games;
+        }
+
+        /**
+         * @param item A crossing item.
+         * @return How many times it was used to cross its terrain.
+         */
+        public long getCrossings(Item item) {
+            return crossings[item.ordinal()];
+        }
+
+        /**
+         * @param item A crossing item.
+         * @return The share of its crossings that broke it.
+         */
+        public double getBreakRate(Item item) {
+            long crossed = crossings[item.ordinal()];
+            return crossed == 0 ? 0 : (double) breaks[item.ordinal()] / crossed;
+        }
+
+        /**
+         * @param percentile From 0 to 100.
+         * @return The game length at that percentile, to within about 6%.
+         */
+        public long getTurnsPercentile(double percentile) {
+            return gameTurns.getPercentile(percentile);
+        }
+
+        /**
+         * @param percentile From 0 to 100.
+         * @return The length of won games at that percentile, to within about 6%.
+         */
+        public long getTurnsToWinPercentile(double percentile) {
+            return turnsToWin.getPercentile(percentile);
+        }
+
+        /**
+         * @param percentile From 0 to 100.
+         * @return The gold that games which weren't lost finished with at that percentile, to within about 6%.
+         */
+        public long getFinalGoldPercentile(double percentile) {
+            return finalGold.getPercentile(percentile);
+        }
+
+        public String toString() {
+            StringBuilder str = new StringBuilder();
+            str.append(games).append(" games");
+            for (Outcome outcome : Outcome.values()) {
+                str.append(String.format("%n  %-10s %6.2f%%", outcome, games == 0 ? 0 : 100.0 * getCount(outcome) / games));
+            }
+            str.append(String.format("%n  brawl death rate %.2f%%, brawls won %.2f%%",
+                    100 * getBrawlDeathRate(), 100 * getBrawlWinRate()));
+            str.append(String.format("%n  average turns %.1f", getMeanTurns()));
+            str.append(String.format("%n  %-20s", "percentile"));
+            for (double percentile : PERCENTILES) {
+                str.append(String.format(" %6.0f", percentile));
+            }
+            appendPercentiles(str, "turns", gameTurns);
+            appendPercentiles(str, "turns to win", turnsToWin);
+            appendPercentiles(str, "final gold (not lost)", finalGold);
+            for (int i = 0; i < crossings.length; i++) {
+                if (crossings[i] > 0) {
+                    str.append(String.format("%n  %-8s crossed %10d times, broke %6.2f%%",
+                            Item.fromIndex(i).getItemName(), crossings[i], 100.0 * breaks[i] / crossings[i]));
+                }
+            }
+            return str.toString();
+        }
+
+        private static void appendPercentiles(StringBuilder str, String label, LatencyHistogram histogram) {
+            str.append(String.format("%n  %-20s", label));
+            for (double percentile : PERCENTILES) {
+                str.append(String.format(" %6d", histogram.getPercentile(percentile)));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        String difficulty = args.length > 1 ? args[1] : "n";
+        int maxTurns = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        BatchRunner runner = new BatchRunner(random -> new RandomStrategy(difficulty, random), maxTurns, seed);
+        SimulationStats stats = new SimulationStats();
+        runner.setStats(stats);
+        long start = System.nanoTime();
+        Thread batch = new Thread(() -> runner.run(games), "batch");
+        batch.start();
+        // the snapshots are read while the games are still being played
+        while (batch.isAlive()) {
+            batch.join(REPORT_MILLIS);
+            Snapshot snapshot = stats.snapshot();
+            System.out.printf("%.1f s: %d games, won %.2f%%%n", (System.nanoTime() - start) / 1e9, snapshot.getGames(),
+                    snapshot.getGames() == 0 ? 0 : 100.0 * snapshot.getCount(Outcome.WON) / snapshot.getGames());
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("seed %d, %s, heap in use %.1f MB%n", seed, difficulty,
+                (runtime.totalMemory() - runtime.freeMemory()) / 1e6);
+        System.out.println(stats.snapshot());
+    }
+}
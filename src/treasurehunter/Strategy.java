@@ -0,0 +1,19 @@
+package treasurehunter;
+
+/**
+ * A Strategy plays the game in place of a person typing at the keyboard.<p>
+ * It is asked for an answer every time the game would read a line of input,
+ * and can look at the hunter and the current town to decide.
+ */
+
+public interface Strategy {
+    /**
+     * Answers a prompt from the game.
+     *
+     * @param prompt The question being asked.
+     * @param hunter The hunter being played, or null before one has been created.
+     * @param town The town the hunter is in, or null before the first town.
+     * @return The line the player would have typed.
+     */
+    String respond(Prompt prompt, Hunter hunter, Town town);
+}
@@ -0,0 +1,58 @@
+package treasurehunter;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyleContext;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out one shared, immutable AttributeSet per text color.<p>
+ * The game only ever draws in a handful of colors (the Colors constants and a few java.awt.Color ones),
+ * so each set is built the first time its color is used and reused from then on, instead of
+ * restyling a shared Style before every insert.
+ */
+
+public class StyleCache {
+    // instance variables
+    private final StyleContext context = new StyleContext();
+    private final AttributeSet base;
+    private final ConcurrentHashMap<Color, AttributeSet> byColor = new ConcurrentHashMap<>();
+
+    /**
+     * @param fontSize The font size every style uses.
+     */
+    public StyleCache(int fontSize) {
+        base = context.addAttribute(SimpleAttributeSet.EMPTY, StyleConstants.FontSize, fontSize);
+    }
+
+    /**
+     * @param color The text color.
+     * @return The shared attributes for text in that color.
+     */
+    public AttributeSet get(Color color) {
+        return byColor.computeIfAbsent(color, c -> context.addAttribute(base, StyleConstants.Foreground, c));
+    }
+
+    /**
+     * Builds the styles for the given colors ahead of time and loads the font they use.
+     *
+     * @param colors The colors to build styles for.
+     * @return The font the styles draw with.
+     */
+    public Font warmUp(List<Color> colors) {
+        for (Color color : colors) {
+            get(color);
+        }
+        return context.getFont(base);
+    }
+
+    /**
+     * @return The number of colors that have a cached style.
+     */
+    public int size() {
+        return byColor.size();
+    }
+}
@@ -0,0 +1,77 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * A piece of text made of several runs, each in its own color, so it can be sent to an OutputSink in one call.<p>
+ * Build it with append() calls, e.g. new StyledText().append("You found a ", Color.BLACK).append("gem", Colors.smokyBlue)
+ */
+
+public class StyledText {
+    // instance variables
+    private String[] texts;
+    private Color[] colors;
+    private int size;
+
+    public StyledText() {
+        texts = new String[4];
+        colors = new Color[4];
+        size = 0;
+    }
+
+    /**
+     * Adds a run to the end of the text.
+     *
+     * @param text The run's text.
+     * @param color The run's color.
+     * @return This StyledText, so calls can be chained.
+     */
+    public StyledText append(String text, Color color) {
+        if (size == texts.length) {
+            texts = Arrays.copyOf(texts, size * 2);
+            colors = Arrays.copyOf(colors, size * 2);
+        }
+        texts[size] = text;
+        colors[size] = color;
+        size++;
+        return this;
+    }
+
+    /**
+     * Replaces the text of a run, keeping its color, so a StyledText that is shown again and again can be updated
+     * in place rather than rebuilt.
+     *
+     * @param run The run's index.
+     * @param text The run's new text.
+     */
+    public void setText(int run, String text) {
+        texts[run] = text;
+    }
+
+    /**
+     * @return The number of runs.
+     */
+    public int size() {
+        return size;
+    }
+
+    public String getText(int run) {
+        return texts[run];
+    }
+
+    public Color getColor(int run) {
+        return colors[run];
+    }
+
+    /**
+     * @return The text of every run joined together, without colors.
+     */
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            str.append(texts[i]);
+        }
+        return str.toString();
+    }
+}
@@ -1,22 +1,26 @@
+package treasurehunter;
+
 /**
  * The Terrain class is designed to represent the zones between the towns in the Treasure Hunter game.
+ * The item needed to cross is kept as its id; every terrain item is one of the standard Items, so it has the
+ * same id in every ItemRegistry.
  * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
  */
 
 public class Terrain {
     // instance variables
     private String terrainName;
-    private String neededItem;
+    private int neededItem;
 
     /**
      * Sets the class member variables
      *
      * @param name The name of the zone.
-     * @param item The item needed in order to cross the zone.
+     * @param neededItem The id of the item needed in order to cross the zone.
      */
-    public Terrain(String name, String item) {
+    public Terrain(String name, int neededItem) {
         terrainName = name;
-        neededItem = item.toLowerCase();
+        this.neededItem = neededItem;
     }
 
     // accessors
@@ -24,10 +28,18 @@ public class Terrain {
         return terrainName;
     }
 
-    public String getNeededItem() {
+    public int getNeededItem() {
         return neededItem;
     }
 
+    public String getNeededItemName() {
+        return Item.fromIndex(neededItem).getItemName();
+    }
+
+    public Item getItem() {
+        return Item.fromIndex(neededItem);
+    }
+
     /**
      * Guards against a hunter crossing the zone without the proper item.
      * Searches the hunter's inventory for the proper item and determines whether the hunter can cross.
@@ -46,6 +58,6 @@ public class Terrain {
      * @return A string representation of the terrain and item to cross it.
      */
     public String infoString() {
-        return "You are surrounded by " + terrainName + " which needs a(n) " + neededItem + " to cross.";
+        return "You are surrounded by " + terrainName + " which needs a(n) " + getNeededItemName() + " to cross.";
     }
 }
\ No newline at end of file
@@ -0,0 +1,357 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.util.function.DoubleFunction;
+
+/**
+ * The Town Class is where it all happens.
+ * The Town is designed to manage all the things a Hunter can do in town.
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class Town {
+    // constants
+    static final Item[] TREASURES = {Item.CROWN, Item.TROPHY, Item.GEM, null}; // by treasure index; 3 is dust
+    private static final String DUST = "dust";
+    private static final double MIN_PRICE_MULTIPLIER = 0.8;
+    private static final double MAX_PRICE_MULTIPLIER = 1.25;
+
+    // instance variables
+    private Hunter hunter;
+    private Shop shop;
+    private Terrain terrain;
+    private int terrainIndex;
+    private String printMessage;
+    private boolean toughTown;
+    private int treasureIndex;
+    private boolean searched = false;
+    private boolean dug = false;
+    private DifficultyProfile profile;
+    private OutputSink window;
+    private GameRandom random;
+    private EventRing events;
+    private String info;
+
+    /**
+     * The Town Constructor takes in a shop and the surrounding terrain, but leaves the hunter as null until one arrives.
+     *
+     * @param shop The town's shoppe.
+     * @param profile The game's difficulty, which sets the odds of everything that happens in town.
+     * @param window Where the results of searching and digging are shown.
+     * @param random The game's random number source; every roll made in this town comes from it.
+     * @param events Where the results of brawls, crossings, searching and digging are published.
+     */
+    public Town(Shop shop, DifficultyProfile profile, OutputSink window, GameRandom random, EventRing events) {
+        this(shop, window, random, events, profile);
+        this.terrain = getNewTerrain();
+
+        // higher toughness = more likely to be a tough town
+        toughTown = (random.nextDouble() < profile.getToughChance());
+    }
+
+    /**
+     * Builds a town of a World. Its terrain, toughness and treasure all come from its own layout generator,
+     * so the same town is built every time it is generated; only what happens there uses the game's generator.
+     * The layout also sets how dear the town's shop is.
+     *
+     * @param shops Builds the town's shop from its price multiplier.
+     * @param layout The town's own random number source, made from the world seed and the town's id.
+     */
+    Town(DoubleFunction<Shop> shops, DifficultyProfile profile, OutputSink window, GameRandom random, EventRing events,
+         GameRandom layout) {
+        this(null, window, random, events, profile);
+        // World.terrainIndexOf(), treasureIndexOf() and priceMultiplierOf() rely on the order of these rolls
+        terrainIndex = layout.nextInt(6);
+        terrain = terrainFor(terrainIndex);
+        toughTown = (layout.nextDouble() < profile.getToughChance());
+        treasureIndex = layout.nextInt(4);
+        shop = shops.apply(priceMultiplierFor(layout.nextDouble()));
+    }
+
+    // sets up everything that doesn't involve a roll; used directly when a town is loaded from a snapshot
+    private Town(Shop shop, OutputSink window, GameRandom random, EventRing events, DifficultyProfile profile) {
+        this.shop = shop;
+        this.profile = profile;
+        this.window = window;
+        this.random = random;
+        this.events = events;
+
+        // the hunter gets set using the hunterArrives method, which
+        // gets called from a client class
+        hunter = null;
+        printMessage = "";
+        treasureIndex = -1; // rolled when the hunter arrives, unless the town was built with one
+    }
+
+    /**
+     * Writes the town's state (terrain, toughness, treasure and whether it has been searched and dug) to a snapshot.
+     *
+     * @param out The buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer out) {
+        out.put((byte) terrainIndex);
+        out.put((byte) treasureIndex);
+        int flags = (toughTown ? 1 : 0) | (searched ? 4 : 0) | (dug ? 8 : 0);
+        out.put((byte) flags);
+    }
+
+    /**
+     * Rebuilds a town written by writeSnapshot(), with the hunter already in it.
+     */
+    static Town readSnapshot(ByteBuffer in, Hunter hunter, Shop shop, DifficultyProfile profile,
+                             OutputSink window, GameRandom random, EventRing events) {
+        Town town = new Town(shop, window, random, events, profile);
+        town.terrainIndex = in.get();
+        town.terrain = terrainFor(town.terrainIndex);
+        town.treasureIndex = in.get();
+        int flags = in.get();
+        town.toughTown = (flags & 1) != 0;
+        town.searched = (flags & 4) != 0;
+        town.dug = (flags & 8) != 0;
+        town.hunter = hunter;
+        return town;
+    }
+
+    /**
+     * Turns a town's price roll into its price multiplier.
+     *
+     * @param roll A roll of GameRandom.nextDouble().
+     * @return What the town's prices are compared to the base costs.
+     */
+    static double priceMultiplierFor(double roll) {
+        return MIN_PRICE_MULTIPLIER + roll * (MAX_PRICE_MULTIPLIER - MIN_PRICE_MULTIPLIER);
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    // the town's state, for building a GameState from it
+    Shop getShop() {
+        return shop;
+    }
+
+    int getTerrainIndex() {
+        return terrainIndex;
+    }
+
+    int getTreasureIndex() {
+        return treasureIndex;
+    }
+
+    boolean isToughTown() {
+        return toughTown;
+    }
+
+    public boolean isSearched() {
+        return searched;
+    }
+
+    public boolean isDug() {
+        return dug;
+    }
+
+    /**
+     * Puts back whether the town has been searched and dug, for a town that is built again after being forgotten.
+     */
+    void setVisited(boolean searched, boolean dug) {
+        this.searched = searched;
+        this.dug = dug;
+    }
+
+    public String getLatestNews() {
+        return printMessage;
+    }
+
+    public void resetNews(){
+        printMessage = "";
+    }
+
+    /**
+     * Adds to the end of the town's latest news.
+     *
+     * @param news The text to add.
+     */
+    public void addNews(String news) {
+        printMessage += news;
+    }
+
+    /**
+     * Assigns an object to the Hunter in town.
+     *
+     * @param hunter The arriving Hunter.
+     */
+    public void hunterArrives(Hunter hunter) {
+        this.hunter = hunter;
+        printMessage = "Welcome to town, " + hunter.getHunterName() + ".";
+        if (toughTown) {
+            printMessage += "\nIt's pretty rough around here, so watch yourself.";
+        } else {
+            printMessage += "\nWe're just a sleepy little town with mild mannered folk.";
+        }
+        if (treasureIndex < 0) {
+            treasureIndex = random.nextInt(4);
+        }
+    }
+
+    /**
+     * Handles the action of the Hunter leaving the town.<p>
+     * The crossing, and the item if it breaks, are published as events rather than written to the news here;
+     * they only reach the news once the events are drained into a NarrativeConsumer.
+     *
+     * @return true if the Hunter was able to leave town.
+     */
+    public boolean leaveTown() {
+        boolean canLeaveTown = terrain.canCrossTerrain(hunter);
+        if (canLeaveTown) {
+            Item item = terrain.getItem();
+            printMessage = "";
+            events.publish(EventType.TERRAIN_CROSSED, 0, item, terrain.getTerrainName(), false);
+            if (checkItemBreak()) {
+                hunter.removeItemFromKit(terrain.getNeededItem());
+                events.publish(EventType.ITEM_BROKE, 0, item, null, false);
+            }
+            return true;
+        }
+
+        printMessage = "You can't leave town, " + hunter.getHunterName() + ". You don't have a " + terrain.getNeededItemName() + ".";
+        return false;
+    }
+
+    /**
+     * Handles calling the enter method on shop whenever the user wants to access the shop.
+     *
+     * @param choice If the user wants to buy or sell items at the shop.
+     */
+    public void enterShop(String choice) {
+        printMessage = shop.enter(hunter, choice);
+    }
+
+    /**
+     * Gives the hunter a chance to fight for some gold.<p>
+     * The chances of finding a fight and winning the gold are based on the toughness of the town.<p>
+     * The tougher the town, the easier it is to find a fight, and the harder it is to win one.
+     */
+    public void lookForTrouble() {
+        double noTroubleChance = profile.getNoTroubleChance(toughTown);
+        if (random.nextDouble() > noTroubleChance) {
+            printMessage = "You couldn't find any trouble";
+        } else {
+            printMessage = "You go into the sketchy part of town at night looking for someone to pick a fight with";
+            printMessage += "\nFrom the shadows, you see a shiny toothy grin glimmering.. You found someone to fight";
+            boolean wonBrawl = false;
+            if (hunter.hasItemInKit(Item.SWORD.id())){
+                boolean scared = random.nextDouble() > 0.5;
+                if (scared) {
+                    printMessage += "\nYou begin to unsheathe your sword, the dim street light reflecting to reveal the opponent's face";
+                    printMessage += "\nTheir face was ghastly pale with fear and immediately fled the scene, leaving all their gold";
+                } else {
+                    printMessage += "\nYou draw your sword and swung at them, but with no defenses against a sword, they surrendered";
+                }
+                wonBrawl = true;
+            } else {
+                printMessage = "You want trouble, stranger!  You got it!\nOof! Umph! Ow!\n";
+                if (random.nextDouble() > noTroubleChance) {
+                    printMessage += "Okay, stranger! You proved yer mettle. Here, take my gold.";
+                    wonBrawl = true;
+                } else {
+                    printMessage += "That'll teach you to go lookin' fer trouble in MY town! Now pay up!";
+                }
+            }
+            printMessage += "\n";
+            int goldDiff = random.nextInt(10) + 1;
+            if (wonBrawl) {
+                hunter.changeGold(goldDiff);
+                events.publish(EventType.BRAWL_WON, goldDiff, null, null, false);
+            } else {
+                hunter.changeGold(-goldDiff);
+                events.publish(EventType.BRAWL_LOST, goldDiff, null, null, false);
+            }
+        }
+    }
+
+    public void lookForTreasure() {
+        if (searched) {
+            window.addTextToWindow("You have already searched this town!" + "\n", Color.red);
+        } else {
+            // dust isn't an Item, so it is published with no item
+            Item treasure = TREASURES[treasureIndex];
+            boolean duplicate = treasure != null && !hunter.addTreasure(treasure.id());
+            events.publish(EventType.TREASURE_FOUND, 0, treasure, treasure == null ? DUST : treasure.getItemName(), duplicate);
+        }
+        searched = true;
+    }
+
+    public void digForGold() {
+        if (!dug) {
+            if (hunter.hasItemInKit(Item.SHOVEL.id())) {
+                dug = true;
+                if (random.nextDouble() > 1 - profile.getDigChance()) {
+                    events.publish(EventType.GOLD_DUG, random.nextInt(profile.getMaxDigGold()) + 1, null, null, false);
+                } else {
+                    events.publish(EventType.GOLD_DUG, 0, null, null, false);
+                }
+            } else {
+                window.addTextToWindow("You can't dig for gold without a shovel!" + "\n", Color.red);
+            }
+        } else {
+            window.addTextToWindow("You already dug for gold in this town." + "\n", Color.red);
+        }
+    }
+
+    /**
+     * @return The town's line of the HUD. It's built the first time it's asked for and then kept, since a town's
+     * terrain never changes.
+     */
+    public String infoString() {
+        if (info == null) {
+            info = "This nice little town is surrounded by " + terrain.getTerrainName() + ".";
+        }
+        return info;
+    }
+
+    /**
+     * Determines the surrounding terrain for a town, and the item needed in order to cross that terrain.
+     *
+     * @return A Terrain object.
+     */
+    private Terrain getNewTerrain() {
+        terrainIndex = random.nextInt(6);
+        return terrainFor(terrainIndex);
+    }
+
+    static Terrain terrainFor(int terrainIndex) {
+        int rnd = terrainIndex + 1;
+        if (rnd == 1) {
+            return new Terrain("Mountains", Item.ROPE.id());
+        } else if (rnd == 2) {
+            return new Terrain("Ocean", Item.BOAT.id());
+        } else if (rnd == 3) {
+            return new Terrain("Plains", Item.HORSE.id());
+        } else if (rnd == 4) {
+            return new Terrain("Desert", Item.WATER.id());
+        } else if (rnd == 5){
+            return new Terrain("Jungle", Item.MACHETE.id());
+        } else {
+            return new Terrain("Marsh", Item.BOOTS.id());
+        }
+    }
+
+    /**
+     * Determines whether a used item has broken. How likely that is depends on the difficulty and on how
+     * easily the terrain's item breaks in the shop's catalog.
+     *
+     * @return true if the item broke.
+     */
+    private boolean checkItemBreak() {
+        double breakChance = profile.getBreakChance() * shop.getItems().getBreakFactor(terrain.getNeededItem());
+        if (breakChance == 0) {
+            // items never break in easy mode, and no roll is made
+            return false;
+        } else {
+            double rand = random.nextDouble();
+            return (rand < breakChance);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,558 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class is responsible for controlling the Treasure Hunter game.<p>
+ * It handles the display of the menu and the processing of the player's choices.<p>
+ * It handles all the display based on the messages it receives from the Town object. <p>
+ *
+ * This code has been adapted from Ivan Turner's original program -- thank you Mr. Turner!
+ */
+
+public class TreasureHunter {
+    // constants
+    private static final int EVENT_RING_SIZE = 64; // an action publishes at most two events, and the narrative drains after each one
+    private static final int LEADERBOARD_SHOWN = 3;
+    // built once when the class loads and shared by every game; it is never changed after that, and sinks copy
+    // the runs they are given, so sending the same StyledText every turn is safe
+    private static final StyledText MENU = new StyledText().append(
+            "(B)uy something at the shop.\n"
+            + "(S)ell something at the shop.\n"
+            + "(E)xplore surrounding terrain.\n"
+            + "(M)ove on to a different town.\n"
+            + "(L)ook for trouble!\n"
+            + "(H)unt for treasure!\n"
+            + "(D)ig for gold!\n"
+            + "(?) Ask for a hint.\n"
+            + "Give up the hunt and e(X)it.\n"
+            + "\n"
+            + "What's your next move? \n", Color.GRAY);
+    private static final long HINT_MILLIS = 200; // how long the MctsBot searches for each hint
+
+    // instance variables
+    private Town currentTown;
+    private Hunter hunter;
+    private DifficultyProfile profile;
+    private boolean profileChosen; // set with setProfile(), so the player isn't asked
+    private ItemRegistry items;
+    private InputSource input;
+    private final OutputSink window;
+    private final GameRandom random;
+    private final EventRing events;
+    private final NarrativeConsumer narrative;
+    private final EventProcessor narrativeProcessor;
+    private EventProcessor[] followers;
+    private int turns;
+    private int maxTurns;
+    private Outcome outcome;
+    private SaveGame autosave;
+    private World world;
+    private int townId;
+    private final int[] roads;
+    private RoutePlanner planner;
+    private MctsBot hintBot;
+    private GameMetrics.Recorder recorder;
+    private Leaderboard leaderboard;
+    private final Hud hud;
+
+    /**
+     * Constructs the Treasure Hunter game, played at the keyboard in a Swing window.
+     * The window isn't opened until the game first draws to it.
+     */
+    public TreasureHunter() {
+        this(new ConsoleInput(), new LazyOutput(OutputWindow::new), new GameRandom(System.nanoTime()));
+    }
+
+    /**
+     * Constructs the Treasure Hunter game with the given input and output.
+     *
+     * @param input Where the player's choices come from.
+     * @param window Where the game's text goes.
+     * @param random Where every random roll in the game comes from; the same seed and input replay the same game.
+     */
+    public TreasureHunter(InputSource input, OutputSink window, GameRandom random) {
+        // these will be initialized in the play method
+        currentTown = null;
+        hunter = null;
+        profile = DifficultyProfile.NORMAL;
+        profileChosen = false;
+        items = ItemRegistry.STANDARD;
+        this.input = input;
+        this.window = window;
+        this.random = random;
+        events = new EventRing(EVENT_RING_SIZE);
+        narrative = new NarrativeConsumer(window);
+        narrativeProcessor = events.addConsumer(narrative);
+        followers = new EventProcessor[0];
+        turns = 0;
+        maxTurns = Integer.MAX_VALUE;
+        outcome = null;
+        autosave = null;
+        world = null;
+        townId = 0;
+        roads = new int[4];
+        planner = null;
+        hintBot = null;
+        recorder = null;
+        leaderboard = null;
+        hud = new Hud();
+    }
+
+    /**
+     * Starts the game and returns once it is over.
+     */
+    public void play() {
+        welcomePlayer();
+        enterTown();
+        showMenu();
+    }
+
+    /**
+     * Picks up a saved game where it left off and plays it until it is over.
+     *
+     * @param save The save file to load from.
+     * @return true if a game was resumed, false if there was no saved game to resume.
+     */
+    public boolean resume(SaveGame save) {
+        if (!save.load(this)) {
+            return false;
+        }
+        window.addTextToWindow("Welcome back, " + hunter.getHunterName() + "!" + "\n", Colors.brown);
+        showMenu();
+        return true;
+    }
+
+    /**
+     * Saves the game to the given file at the start of every turn, and clears it once the game is won, lost or quit.
+     *
+     * @param autosave The save file, or null to stop autosaving.
+     */
+    public void setAutosave(SaveGame autosave) {
+        this.autosave = autosave;
+    }
+
+    /**
+     * Counts and times every turn of the game, and how it ends, into the given metrics.
+     * Must be called before the game starts.
+     *
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        recorder = metrics.newRecorder();
+        input = recorder.wrap(input);
+    }
+
+    /**
+     * Adds the game to the leaderboard when it ends, and shows the hunter where they placed.
+     *
+     * @param leaderboard The leaderboard, or null for none.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Plays the game at the given difficulty instead of asking the player to choose one.
+     * Must be called before the game starts.
+     *
+     * @param profile The difficulty, such as one being tried out by DifficultyTuner.
+     */
+    public void setProfile(DifficultyProfile profile) {
+        this.profile = profile;
+        profileChosen = true;
+    }
+
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Plays the game with the items of a catalog, which shops sell alongside the standard ones.
+     * Must be called before the game starts, and before a saved game is resumed.
+     *
+     * @param items The items of the game.
+     */
+    public void setItems(ItemRegistry items) {
+        this.items = items;
+    }
+
+    /**
+     * Plays the game in a fixed world of towns instead of a new random town every time the hunter moves on.
+     * Must be called before the game starts. The hunter starts in town 0.
+     *
+     * @param worldSeed The seed the world is built from.
+     * @param width How many towns there are across.
+     * @param height How many towns there are down.
+     * @param cacheSize How many recently visited towns to keep in memory.
+     */
+    public void setWorld(long worldSeed, int width, int height, int cacheSize) {
+        world = new World(worldSeed, width, height, cacheSize,
+                layout -> new Town(this::newShop, profile, window, random, events, layout));
+        townId = 0;
+        planner = null;
+        hintBot = null;
+    }
+
+    /**
+     * Works out the cheapest route, on average, from the hunter's town to a treasure they still need.
+     *
+     * @return The route and what to buy on the way, or null if the game has no World or no treasure is in reach.
+     */
+    public RoutePlanner.Plan planRoute() {
+        if (world == null || hunter == null) {
+            return null;
+        }
+        if (planner == null) {
+            planner = new RoutePlanner(world, newShop(), profile.getBreakChance());
+        }
+        return planner.plan(townId, hunter.getKitMask(), hunter.getHunterGold(), hunter.getTreasureMask());
+    }
+
+    /**
+     * Writes everything needed to carry on this game later: the item catalog's fingerprint, the difficulty
+     * profile, turn count, random generator, hunter and current town.
+     *
+     * @param out The buffer to write to.
+     */
+    void writeSnapshot(ByteBuffer out) {
+        out.putLong(items.getFingerprint());
+        profile.writeSnapshot(out);
+        out.putInt(turns);
+        random.writeSnapshot(out);
+        hunter.writeSnapshot(out);
+        currentTown.writeSnapshot(out);
+    }
+
+    /**
+     * Puts the game back into the state written by writeSnapshot().
+     *
+     * @param in The buffer to read from.
+     * @throws IllegalStateException If the game was saved with a different item catalog, whose ids would
+     *                               mean other items; nothing is changed.
+     */
+    void readSnapshot(ByteBuffer in) {
+        if (in.getLong() != items.getFingerprint()) {
+            throw new IllegalStateException("the saved game was played with a different item catalog");
+        }
+        profile = DifficultyProfile.readSnapshot(in);
+        turns = in.getInt();
+        random.readSnapshot(in);
+        hunter = Hunter.readSnapshot(in, items);
+        currentTown = Town.readSnapshot(in, hunter, newShop(), profile, window, random, events);
+        narrative.setTown(currentTown);
+        outcome = null;
+    }
+
+    // accessors
+    public Hunter getHunter() {
+        return hunter;
+    }
+
+    public Town getCurrentTown() {
+        return currentTown;
+    }
+
+    /**
+     * @return The world the game is played in, or null if every town is new.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    public int getTownId() {
+        return townId;
+    }
+
+    /**
+     * @return The game's event stream; add a consumer to it to follow what happens in the game.
+     */
+    public EventRing getEvents() {
+        return events;
+    }
+
+    /**
+     * Feeds the game's events to a consumer on the game's own thread, after every action, the same way the
+     * narrative is fed. Unlike a consumer added to getEvents(), it never needs draining by anyone else.
+     *
+     * @param consumer The consumer.
+     */
+    public void followEvents(EventConsumer consumer) {
+        followers = Arrays.copyOf(followers, followers.length + 1);
+        followers[followers.length - 1] = events.addConsumer(consumer);
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * @return How the game ended, or null if it is still being played.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Limits the number of menu choices the game will process before it stops with Outcome.TURN_LIMIT.
+     *
+     * @param maxTurns The most turns the game may last.
+     */
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Creates a hunter object at the beginning of the game and populates the class member variable with it.
+     */
+    private void welcomePlayer() {
+        window.addTextToWindow("Welcome to TREASURE HUNTER!" + "\n", Colors.brown);
+        window.addTextToWindow("Going hunting for the big treasure, eh?" + "\n", Colors.brown);
+        window.addTextToWindow("What's your name, Hunter? " + "\n", Color.BLACK);
+        window.flush();
+        String name = input.nextLine(Prompt.NAME).toLowerCase();
+        boolean testMode = false;
+
+        if (!profileChosen) {
+            window.addTextToWindow("Easy, normal, or hard mode? (e/n/h): " + "\n", Color.BLACK);
+            window.flush();
+            String hard = input.nextLine(Prompt.DIFFICULTY).toLowerCase();
+            if (hard.equals("test")) {
+                profile = DifficultyProfile.NORMAL.withStartingGold(100);
+                testMode = true;
+            } else if (hard.equals("test lose")) {
+                profile = DifficultyProfile.HARD.withStartingGold(1);
+            } else {
+                profile = DifficultyProfile.forChoice(hard);
+            }
+        }
+
+        // set hunter instance variable
+        hunter = new Hunter(name, profile.getStartingGold(), items);
+        if (testMode) {
+            hunter.testMode();
+        }
+    }
+
+    /**
+     * Creates a new town and adds the Hunter to it.
+     */
+    private void enterTown() {
+        if (world != null) {
+            currentTown = world.getTown(townId);
+            narrative.setTown(currentTown);
+            currentTown.hunterArrives(hunter);
+            return;
+        }
+
+        // note that we don't need to access the Shop object
+        // outside of this method, so it isn't necessary to store it as an instance
+        // variable; we can leave it as a local variable
+        Shop shop = newShop();
+
+        // creating the new Town -- which we need to store as an instance
+        // variable in this class, since we need to access the Town
+        // object in other methods of this class
+        currentTown = new Town(shop, profile, window, random, events);
+        narrative.setTown(currentTown);
+
+        // calling the hunterArrives method, which takes the Hunter
+        // as a parameter; note this also could have been done in the
+        // constructor for Town, but this illustrates another way to associate
+        // an object with an object of a different class
+        currentTown.hunterArrives(hunter);
+
+    }
+
+    /**
+     * Creates the shop for a town at the current difficulty, at the base prices.
+     */
+    private Shop newShop() {
+        return newShop(1);
+    }
+
+    /**
+     * Creates the shop for a town at the current difficulty.
+     *
+     * @param priceMultiplier What the town's prices are compared to the base costs.
+     */
+    private Shop newShop(double priceMultiplier) {
+        return new Shop(profile.getMarkdown(), profile.isSamurai(), priceMultiplier, items, input, window, events);
+    }
+
+    /**
+     * Displays the menu and receives the choice from the user.<p>
+     * The choice is sent to the processChoice() method for parsing.<p>
+     * This method will loop until the user chooses to exit.
+     */
+    private void showMenu() {
+        String choice = "";
+        boolean hinted = false;
+        while (!choice.equals("x")) {
+            if (turns >= maxTurns) {
+                outcome = Outcome.TURN_LIMIT;
+                endGame();
+                return;
+            }
+            if (recorder != null) {
+                recorder.startTurn();
+            }
+            if (autosave != null && !hinted) {
+                autosave.save(this); // a hint changes nothing, so there's nothing new to save after one
+            }
+            hud.show(window, hunter, currentTown);
+            currentTown.resetNews();
+            window.addStyledText(MENU);
+            window.flush();
+            if (recorder != null) {
+                recorder.rendered();
+            }
+            choice = input.nextLine(Prompt.MOVE).toLowerCase();
+            Action action = recorder == null ? null : Action.forChoice(choice);
+            choice = processChoice(choice);
+            if (recorder != null) {
+                recorder.endTurn(action);
+            }
+            // asking for a hint doesn't use up a turn
+            hinted = choice.equals("?");
+            if (!hinted) {
+                turns++;
+            }
+        }
+        if (autosave != null) {
+            autosave.clear();
+        }
+        endGame();
+    }
+
+    /**
+     * Records how the game ended, in the metrics and on the leaderboard.
+     */
+    private void endGame() {
+        if (recorder != null) {
+            recorder.endGame(profile.getName(), outcome);
+        }
+        if (leaderboard != null) {
+            Leaderboard.Entry entry = leaderboard.add(this);
+            window.addTextToWindow("You placed #" + leaderboard.rankOf(entry) + " of "
+                    + leaderboard.getCount(profile.getName()) + " hunters on this difficulty." + "\n", Colors.brown);
+            for (Leaderboard.Entry best : leaderboard.top(profile.getName(), LEADERBOARD_SHOWN)) {
+                window.addTextToWindow("  " + best + "\n", Color.GRAY);
+            }
+        }
+    }
+
+    /**
+     * Takes the choice received from the menu and calls the appropriate method to carry out the instructions.
+     * @param choice The action to process.
+     * @return "x" if the game is over, "?" if the player only asked for a hint, or "" otherwise.
+     */
+    private String processChoice(String choice) {
+        window.clear();
+        if (choice.equals("b") || choice.equals("s")) {
+            currentTown.enterShop(choice);
+            showEvents();
+        } else if (choice.equals("e")) {
+            window.addTextToWindow(currentTown.getTerrain().infoString() + "\n", Colors.salmon);
+        } else if (choice.equals("m") && world != null) {
+            moveThroughWorld();
+        } else if (choice.equals("m")) {
+            boolean left = currentTown.leaveTown();
+            showEvents();
+            if (left) {
+                // This town is going away so print its news ahead of time.
+                window.addTextToWindow(currentTown.getLatestNews() + "\n", Colors.salmon);
+                enterTown();
+            }
+        } else if (choice.equals("l")) {
+            currentTown.lookForTrouble();
+            showEvents();
+            if (hunter.getHunterGold() < 0) {
+                window.addTextToWindow("\n", Color.GRAY);
+                window.addTextToWindow(currentTown.getLatestNews() + "\n", Colors.salmon);
+                window.addTextToWindow("\n", Color.GRAY);
+                window.addTextToWindow("You don't have enough gold to pay!" + "\n", Color.RED);
+                window.addTextToWindow("Fare thee well, " + hunter.getHunterName() + "!" + "\n", Color.red);
+                outcome = Outcome.LOST;
+                return "x";
+            }
+        } else if (choice.equals("h")) {
+            currentTown.lookForTreasure();
+            showEvents();
+            if (hunter.checkTreasures()) {
+                window.addTextToWindow("Congratulations, you have found the last of the three treasures, you win!" + "\n", Color.RED);
+                outcome = Outcome.WON;
+                return "x";
+            }
+        } else if (choice.equals("d")) {
+            currentTown.digForGold();
+            showEvents();
+        } else if (choice.equals("?")) {
+            // nobody sees a headless game's window, and replaying a journal would otherwise search again for every hint
+            if (window != HeadlessOutput.INSTANCE) {
+                window.addTextToWindow("Hint: try " + hint() + "\n", Colors.smokyBlue);
+            }
+            return "?";
+        } else if (choice.equals("x")) {
+            window.addTextToWindow("Fare thee well, " + hunter.getHunterName() + "!" + "\n", Color.red);
+            outcome = Outcome.QUIT;
+            return "x";
+        } else {
+            window.addTextToWindow("Yikes! That's an invalid option! Try again." + "\n", Color.red);
+        }
+        return "";
+    }
+
+    /**
+     * Asks which road to take out of town, then crosses the terrain to the town at the end of it.
+     */
+    private void moveThroughWorld() {
+        int count = world.neighbors(townId, roads);
+        window.addTextToWindow("Roads lead out of town " + townId + " to:" + "\n", Color.GRAY);
+        for (int i = 0; i < count; i++) {
+            String terrainName = Town.terrainFor(world.terrainIndexOf(roads[i])).getTerrainName();
+            window.addTextToWindow("(" + (i + 1) + ") town " + roads[i] + ", surrounded by " + terrainName + "\n", Color.GRAY);
+        }
+        window.addTextToWindow("Which road do you take? " + "\n", Color.GRAY);
+        window.flush();
+        String road = input.nextLine(Prompt.DESTINATION).trim();
+        int choice = -1;
+        if (road.matches("[1-9]")) {
+            choice = Integer.parseInt(road) - 1;
+        }
+        if (choice < 0 || choice >= count) {
+            window.addTextToWindow("There's no road like that out of town." + "\n", Color.red);
+            return;
+        }
+        boolean left = currentTown.leaveTown();
+        showEvents();
+        if (left) {
+            window.addTextToWindow(currentTown.getLatestNews() + "\n", Colors.salmon);
+            townId = roads[choice];
+            enterTown();
+        }
+    }
+
+    /**
+     * Asks the MctsBot what it would do in the hunter's place.
+     */
+    private String hint() {
+        if (hintBot == null) {
+            // hints are only advice, so the bot gets its own dice; splitting the game's would change every later roll
+            hintBot = new MctsBot(profile, new GameRandom(System.nanoTime()), HINT_MILLIS);
+        }
+        return hintBot.suggestMove(this, HINT_MILLIS);
+    }
+
+    /**
+     * Turns the events published by the last action into text, before anything else is shown.
+     */
+    private void showEvents() {
+        narrativeProcessor.drain();
+        for (EventProcessor follower : followers) {
+            follower.drain();
+        }
+    }
+}
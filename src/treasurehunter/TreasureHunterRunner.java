@@ -0,0 +1,175 @@
+package treasurehunter;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Starts the game.<p>
+ * Usage: java TreasureHunterRunner [--window | --terminal] [--save file] [--journal file]
+ * [--script file] [--seed n] [--world WIDTHxHEIGHT] [--metrics] [--leaderboard file] [--items file]<p>
+ * The game is shown in a Swing window unless --terminal is given or there is no display,
+ * in which case it is drawn in the terminal with ANSI colors. Either one is only created when
+ * the game first draws something.<p>
+ * With --save, the game is saved to the file every turn, and a game left in the file is picked
+ * up where it left off.<p>
+ * With --journal, a new game's seed and every line typed are appended to the file, so the game
+ * can be replayed exactly with JournalReplay. A game resumed from a save isn't journaled.<p>
+ * With --script, the lines are read from the file instead of the keyboard, and games are played one
+ * after another until the script runs out. Game i is played from GameRandom.seedFor(seed, i), so a
+ * script with a --seed always plays the same way. Scripted games aren't saved or journaled.<p>
+ * With --world, the hunter travels a fixed world of towns, built from the seed, choosing a road each time
+ * they move on. World games aren't saved or journaled either, since neither records the world yet.<p>
+ * With --metrics, every turn is counted and timed and published over JMX as a GameMetrics MBean, for jconsole
+ * or MetricsClient to read while the game is running.<p>
+ * With --leaderboard, every finished game is added to the leaderboard in the file, and the hunter is shown
+ * where they placed among the others who played the same difficulty.<p>
+ * With --items, shops sell the items of the catalog in the file as well as the standard ones (see ItemRegistry).
+ * A saved game must be resumed with the same catalog it was saved with, and won't resume with any other. Games
+ * played with a catalog aren't journaled, since the journal doesn't record the catalog.
+ */
+
+public class TreasureHunterRunner {
+    // constants
+    private static final int WORLD_CACHE_SIZE = 1024;
+
+    public static void main(String[] args) throws IOException {
+        boolean terminal = GraphicsEnvironment.isHeadless();
+        Path saveFile = null;
+        Path journalFile = null;
+        Path scriptFile = null;
+        long seed = System.nanoTime();
+        int[] worldSize = null;
+        GameMetrics metrics = null;
+        Path leaderboardFile = null;
+        ItemRegistry items = ItemRegistry.STANDARD;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--terminal")) {
+                terminal = true;
+            } else if (args[i].equals("--window")) {
+                terminal = false;
+            } else if (args[i].equals("--save") && i + 1 < args.length) {
+                saveFile = Path.of(args[++i]);
+            } else if (args[i].equals("--journal") && i + 1 < args.length) {
+                journalFile = Path.of(args[++i]);
+            } else if (args[i].equals("--script") && i + 1 < args.length) {
+                scriptFile = Path.of(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--world") && i + 1 < args.length) {
+                String[] size = args[++i].split("x");
+                worldSize = new int[] {Integer.parseInt(size[0]), Integer.parseInt(size[1])};
+            } else if (args[i].equals("--metrics")) {
+                metrics = new GameMetrics(1);
+                metrics.register();
+            } else if (args[i].equals("--leaderboard") && i + 1 < args.length) {
+                leaderboardFile = Path.of(args[++i]);
+            } else if (args[i].equals("--items") && i + 1 < args.length) {
+                items = ItemRegistry.load(Path.of(args[++i]));
+            }
+        }
+
+        OutputSink window;
+        if (terminal) {
+            window = new LazyOutput(AnsiTerminal::new);
+        } else {
+            window = new LazyOutput(OutputWindow::new);
+        }
+        Leaderboard leaderboard = leaderboardFile == null ? null : new Leaderboard(leaderboardFile);
+        try {
+            if (scriptFile != null) {
+                playScript(new ScriptInput(scriptFile), window, seed, worldSize, metrics, leaderboard, items);
+            } else {
+                play(window, seed, worldSize, metrics, leaderboard, items, saveFile, journalFile);
+            }
+        } finally {
+            if (leaderboard != null) {
+                leaderboard.close();
+            }
+        }
+        window.flush();
+    }
+
+    /**
+     * Plays one game at the keyboard, resuming it from the save file if there is a game in it.
+     */
+    private static void play(OutputSink window, long seed, int[] worldSize, GameMetrics metrics,
+                             Leaderboard leaderboard, ItemRegistry items, Path saveFile, Path journalFile)
+            throws IOException {
+        if (worldSize != null) {
+            saveFile = null;
+            journalFile = null;
+        }
+        if (items != ItemRegistry.STANDARD) {
+            // the journal doesn't record the catalog, so JournalReplay couldn't play the game again
+            journalFile = null;
+        }
+        SaveGame save = saveFile == null ? null : new SaveGame(saveFile);
+        boolean resuming = save != null && save.hasGame();
+
+        GameRandom random = new GameRandom(seed);
+        InputSource input = new ConsoleInput();
+        InputJournal journal = null;
+        if (journalFile != null && !resuming) {
+            journal = new InputJournal(journalFile);
+            journal.startSession(random);
+            input = journal.wrap(input);
+        }
+
+        TreasureHunter game = new TreasureHunter(input, window, random);
+        if (worldSize != null) {
+            game.setWorld(GameRandom.seedFor(seed, -1), worldSize[0], worldSize[1], WORLD_CACHE_SIZE);
+        }
+        if (metrics != null) {
+            game.setMetrics(metrics);
+        }
+        game.setLeaderboard(leaderboard);
+        game.setItems(items);
+        try {
+            if (save != null) {
+                game.setAutosave(save);
+            }
+            if (!resuming || !game.resume(save)) {
+                game.play();
+            }
+            if (journal != null) {
+                journal.endSession(game);
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+            if (save != null) {
+                save.close();
+            }
+        }
+    }
+
+    /**
+     * Plays games from the script until it runs out, stopping part way through a game if need be.
+     */
+    private static void playScript(ScriptInput script, OutputSink window, long seed, int[] worldSize, GameMetrics metrics,
+                                   Leaderboard leaderboard, ItemRegistry items) {
+        int games = 0;
+        while (script.hasNextLine()) {
+            TreasureHunter game = new TreasureHunter(script, window, new GameRandom(GameRandom.seedFor(seed, games)));
+            if (worldSize != null) {
+                // every game of the script is played in the same world
+                game.setWorld(GameRandom.seedFor(seed, -1), worldSize[0], worldSize[1], WORLD_CACHE_SIZE);
+            }
+            if (metrics != null) {
+                game.setMetrics(metrics);
+            }
+            game.setLeaderboard(leaderboard);
+            game.setItems(items);
+            games++;
+            try {
+                game.play();
+            } catch (NoSuchElementException e) {
+                break; // the script ended in the middle of this game
+            }
+        }
+        window.addTextToWindow("Script finished: " + script.getLinesRead() + " lines, " + games + " games (seed " + seed + ")" + "\n", Color.GRAY);
+    }
+}
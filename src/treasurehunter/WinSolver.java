@@ -0,0 +1,353 @@
+package treasurehunter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Works out the exact chance of winning from every position of the game, and the best move to make there,
+ * for one difficulty.<p>
+ * A position is the hunter's gold, which of the crossing items (and the sword, in samurai mode) are in the kit,
+ * which treasures have been found, and the town: its terrain, whether it is tough, and its treasure, or that it has
+ * been searched already. The odds are those of Town and Shop for the DifficultyProfile (see GameState, which plays
+ * by the same rules).
+ * The shovel is left out, since the gold dug up is never added to the hunter's, so a shovel only costs gold.
+ * Gold is capped at maxGold; a hunter with more is treated as having exactly that much.<p>
+ * The chances are found by value iteration: every position's chance is set to the best, over its moves, of the
+ * average chance of where the move leads, and this is repeated until nothing changes by more than the tolerance.
+ * Each sweep updates the table in place, one kit per fork-join task, going up through the gold levels. The table is a DoubleBuffer, kept off
+ * the heap once it gets big.<p>
+ * player() plays by the best moves, so the chances can be checked against real games.<p>
+ * Usage: java WinSolver [maxGold] [tolerance] [games] [seed]
+ */
+
+public class WinSolver {
+    // constants
+    private static final int TERRAINS = 6;
+    private static final int TREASURE_STATES = 5; // the town's treasure index, or SEARCHED
+    private static final int SEARCHED = 4;
+    private static final int TOWNS = TERRAINS * 2 * TREASURE_STATES;
+    private static final int ALL_TREASURES = 7;
+    private static final int TREASURE_SETS = 8;
+    private static final int MAX_GOLD_DIFF = 10;
+    private static final int OFF_HEAP_STATES = 1 << 21;
+
+    // instance variables
+    private final DifficultyProfile profile;
+    private final int maxGold;
+    private final int kitItems;        // the six crossing items, plus the sword in samurai mode
+    private final int kits;
+    private final Item[] kitItem;      // by kit bit
+    private final int[] buyPrice;      // by kit bit
+    private final int[] sellPrice;     // by kit bit
+    private final int swordBit;        // 0 if there is no sword
+    private final DoubleBuffer values;
+    private final double[] moveAverages; // the average chance over every town the hunter could move on to
+    private byte[] policy;
+    private int sweeps;
+
+    /**
+     * @param profile The difficulty to solve.
+     * @param maxGold The most gold a position can hold.
+     */
+    public WinSolver(DifficultyProfile profile, int maxGold) {
+        this.profile = profile;
+        boolean samurai = profile.isSamurai();
+        this.maxGold = maxGold;
+
+        kitItems = samurai ? TERRAINS + 1 : TERRAINS;
+        kits = 1 << kitItems;
+        kitItem = new Item[kitItems];
+        buyPrice = new int[kitItems];
+        sellPrice = new int[kitItems];
+        Shop shop = new Shop(profile.getMarkdown(), samurai, prompt -> "", HeadlessOutput.INSTANCE, new EventRing(2));
+        for (int i = 0; i < kitItems; i++) {
+            kitItem[i] = i < TERRAINS ? Town.terrainFor(i).getItem() : Item.SWORD;
+            buyPrice[i] = shop.getCostOfItem(kitItem[i].id());
+            sellPrice[i] = shop.getBuyBackCost(kitItem[i].id());
+        }
+        swordBit = samurai ? 1 << TERRAINS : 0;
+
+        int states = getStateCount();
+        if (states > OFF_HEAP_STATES) {
+            values = ByteBuffer.allocateDirect(states * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        } else {
+            values = DoubleBuffer.allocate(states);
+        }
+        moveAverages = new double[(maxGold + 1) * kits * TREASURE_SETS];
+        policy = null;
+        sweeps = 0;
+    }
+
+    /**
+     * Sweeps the table until the chances settle, then records the best move for every position.
+     *
+     * @param tolerance Stop once no chance changes by more than this in a sweep.
+     * @return How many sweeps it took.
+     */
+    public int solve(double tolerance) {
+        double change;
+        do {
+            change = sweepAll(null);
+        } while (change > tolerance);
+        // one more sweep to pick out the best moves
+        policy = new byte[getStateCount()];
+        sweepAll(policy);
+        IntStream.range(0, kits).parallel().forEach(this::updateMoveAverages);
+        return sweeps;
+    }
+
+    /**
+     * @return The chance of winning a new game with best play, before the first town is known.
+     */
+    public double getStartingWinProbability() {
+        return moveAverages[moveIndex(Math.min(profile.getStartingGold(), maxGold), 0, 0)];
+    }
+
+    /**
+     * @return The chance of winning from the hunter's position with best play.
+     */
+    public double getWinProbability(Hunter hunter, Town town) {
+        int found = treasuresOf(hunter);
+        if (found == ALL_TREASURES) {
+            return 1;
+        }
+        if (hunter.getHunterGold() < 0) {
+            return 0;
+        }
+        return values.get(index(Math.min(hunter.getHunterGold(), maxGold), kitOf(hunter), found, townOf(town)));
+    }
+
+    /**
+     * @return The best move from the hunter's position, numbered as in GameState.
+     */
+    public int getBestMove(Hunter hunter, Town town) {
+        return policy[index(Math.min(Math.max(hunter.getHunterGold(), 0), maxGold), kitOf(hunter), treasuresOf(hunter) & ALL_TREASURES, townOf(town))];
+    }
+
+    /**
+     * @return A player that makes the best move every turn, for checking the chances against real games played
+     *         with the profile this was solved for.
+     */
+    public Strategy player() {
+        return new Strategy() {
+            private int pendingMove = -1;
+
+            public String respond(Prompt prompt, Hunter hunter, Town town) {
+                if (prompt == Prompt.NAME) {
+                    return "solver";
+                } else if (prompt == Prompt.DIFFICULTY) {
+                    return profile.getName();
+                } else if (prompt == Prompt.MOVE) {
+                    pendingMove = getBestMove(hunter, town);
+                    return GameState.choiceFor(pendingMove);
+                } else if (prompt == Prompt.BUY_ITEM || prompt == Prompt.SELL_ITEM) {
+                    Item item = GameState.itemFor(pendingMove);
+                    return item == null ? "" : item.getItemName();
+                } else if (prompt == Prompt.CONFIRM) {
+                    return "y";
+                }
+                return "1";
+            }
+        };
+    }
+
+    public int getStateCount() {
+        return (maxGold + 1) * kits * TREASURE_SETS * TOWNS;
+    }
+
+    public boolean isOffHeap() {
+        return values.isDirect();
+    }
+
+    private double sweepAll(byte[] moves) {
+        IntStream.range(0, kits).parallel().forEach(this::updateMoveAverages);
+        sweeps++;
+        return IntStream.range(0, kits).parallel().mapToDouble(kit -> sweep(kit, moves)).max().getAsDouble();
+    }
+
+    // one in-place pass over every position with this kit, in order of gold; returns the biggest change
+    private double sweep(int kit, byte[] moves) {
+        double change = 0;
+        int[] best = new int[1];
+        for (int found = 0; found < ALL_TREASURES; found++) {
+            for (int town = 0; town < TOWNS; town++) {
+                int base = index(0, kit, found, town);
+                // the chances after winning or losing a fight from the current gold, added up; rather than adding
+                // them up afresh for every gold, each is slid along by one as the gold goes up
+                double won = 0;
+                double lost = 0;
+                for (int diff = 1; diff <= MAX_GOLD_DIFF; diff++) {
+                    won += values.get(base + Math.min(diff, maxGold));
+                }
+                for (int gold = 0; gold <= maxGold; gold++) {
+                    double value = evaluate(gold, kit, found, town, won, lost, best);
+                    change = Math.max(change, Math.abs(value - values.get(base + gold)));
+                    values.put(base + gold, value);
+                    if (moves != null) {
+                        moves[base + gold] = (byte) best[0];
+                    }
+                    won += values.get(base + Math.min(gold + 1 + MAX_GOLD_DIFF, maxGold)) - values.get(base + Math.min(gold + 1, maxGold));
+                    lost += value - (gold >= MAX_GOLD_DIFF ? values.get(base + gold - MAX_GOLD_DIFF) : 0);
+                }
+            }
+        }
+        return change;
+    }
+
+    private void updateMoveAverages(int kit) {
+        for (int found = 0; found < ALL_TREASURES; found++) {
+            for (int gold = 0; gold <= maxGold; gold++) {
+                double sum = 0;
+                for (int terrain = 0; terrain < TERRAINS; terrain++) {
+                    for (int treasure = 0; treasure < 4; treasure++) {
+                        sum += (1 - profile.getToughChance()) * values.get(index(gold, kit, found, town(terrain, false, treasure)));
+                        sum += profile.getToughChance() * values.get(index(gold, kit, found, town(terrain, true, treasure)));
+                    }
+                }
+                moveAverages[moveIndex(gold, kit, found)] = sum / (TERRAINS * 4);
+            }
+        }
+    }
+
+    // the best chance of winning over every move from a position, given the chances after each way a fight could go
+    // added up; the move is put in best
+    private double evaluate(int gold, int kit, int found, int town, double won, double lost, int[] best) {
+        int terrain = town / (2 * TREASURE_STATES);
+        boolean tough = (town / TREASURE_STATES) % 2 == 1;
+        int treasure = town % TREASURE_STATES;
+        boolean sword = (kit & swordBit) != 0;
+        double bestValue = -1;
+        int bestMove = GameState.TROUBLE;
+
+        // hunt for treasure
+        if (treasure != SEARCHED) {
+            int after = treasure < 3 ? found | (1 << treasure) : found;
+            double value = value(gold, kit, after, town(terrain, tough, SEARCHED));
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = GameState.HUNT;
+            }
+        }
+
+        // look for trouble (the same odds as Town.lookForTrouble)
+        double noTroubleChance = profile.getNoTroubleChance(tough);
+        double winChance = sword ? 1 : 1 - noTroubleChance;
+        // most of the time nothing happens and the hunter is back where they started, free to look again, so
+        // looking for trouble is worth exactly what a fight is worth
+        double trouble = (winChance * won + (1 - winChance) * lost) / MAX_GOLD_DIFF;
+        if (trouble > bestValue) {
+            bestValue = trouble;
+            bestMove = GameState.TROUBLE;
+        }
+
+        // move on, which takes the item for this terrain and sometimes breaks it
+        int needed = 1 << terrain;
+        if ((kit & needed) != 0) {
+            double kept = moveAverages[moveIndex(gold, kit, found)];
+            double broken = moveAverages[moveIndex(gold, kit & ~needed, found)];
+            double value = (1 - profile.getBreakChance()) * kept + profile.getBreakChance() * broken;
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = GameState.MOVE;
+            }
+        }
+
+        // buy or sell
+        for (int i = 0; i < kitItems; i++) {
+            int bit = 1 << i;
+            double value = -1;
+            int move = 0;
+            if ((kit & bit) == 0 && buyPrice[i] >= 0 && buyPrice[i] <= gold) {
+                int paid = sword || bit == swordBit ? 0 : buyPrice[i];
+                value = value(gold - paid, kit | bit, found, town);
+                move = GameState.BUY + kitItem[i].ordinal();
+            } else if ((kit & bit) != 0 && sellPrice[i] > 0) {
+                value = value(Math.min(gold + sellPrice[i], maxGold), kit & ~bit, found, town);
+                move = GameState.SELL + kitItem[i].ordinal();
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = move;
+            }
+        }
+
+        best[0] = bestMove;
+        return bestValue;
+    }
+
+    private double value(int gold, int kit, int found, int town) {
+        if (found == ALL_TREASURES) {
+            return 1;
+        }
+        return values.get(index(gold, kit, found, town));
+    }
+
+    private int index(int gold, int kit, int found, int town) {
+        return ((kit * TREASURE_SETS + found) * TOWNS + town) * (maxGold + 1) + gold;
+    }
+
+    private int moveIndex(int gold, int kit, int found) {
+        return (kit * TREASURE_SETS + found) * (maxGold + 1) + gold;
+    }
+
+    private static int town(int terrain, boolean tough, int treasure) {
+        return (terrain * 2 + (tough ? 1 : 0)) * TREASURE_STATES + treasure;
+    }
+
+    private int kitOf(Hunter hunter) {
+        int kit = 0;
+        for (int i = 0; i < kitItems; i++) {
+            if (hunter.hasItemInKit(kitItem[i].id())) {
+                kit |= 1 << i;
+            }
+        }
+        return kit;
+    }
+
+    private static int treasuresOf(Hunter hunter) {
+        int found = 0;
+        for (int i = 0; i < 3; i++) {
+            if ((hunter.getTreasureMask() & Town.TREASURES[i].bit()) != 0) {
+                found |= 1 << i;
+            }
+        }
+        return found;
+    }
+
+    private static int townOf(Town town) {
+        int treasure = town.isSearched() ? SEARCHED : town.getTreasureIndex();
+        return town(town.getTerrainIndex(), town.isToughTown(), treasure);
+    }
+
+    public static void main(String[] args) {
+        int maxGold = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 1e-8;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        System.out.printf("gold capped at %d, tolerance %g, %d games played with the best moves (seed %d)%n",
+                maxGold, tolerance, games, seed);
+        for (DifficultyProfile profile : new DifficultyProfile[] {DifficultyProfile.EASY, DifficultyProfile.NORMAL,
+                DifficultyProfile.HARD, DifficultyProfile.SAMURAI}) {
+            long start = System.nanoTime();
+            WinSolver solver = new WinSolver(profile, maxGold);
+            int sweeps = solver.solve(tolerance);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            // the solver doesn't count turns, so the games are given as long as they need
+            int won = 0;
+            for (int i = 0; i < games; i++) {
+                HeadlessGame game = new HeadlessGame(random -> solver.player(), GameRandom.seedFor(seed, i), Integer.MAX_VALUE);
+                game.getGame().setProfile(profile);
+                if (game.play() == Outcome.WON) {
+                    won++;
+                }
+            }
+            System.out.printf("  %s: win chance with best play %.4f%%, won %.2f%% of games (%d states %s, %d sweeps, %.2f s)%n",
+                    profile.getName(), 100 * solver.getStartingWinProbability(), 100.0 * won / games, solver.getStateCount(),
+                    solver.isOffHeap() ? "off heap" : "on heap", sweeps, seconds);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package treasurehunter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A fixed world of towns joined by roads, all worked out from a single world seed.<p>
+ * The towns sit on a grid that wraps around at the edges. Every town has a road east and west, and a road
+ * north or south is there or not depending on the seed (the first column always has both, so every town can be reached).
+ * Town number id is built the first time it is reached, from GameRandom.seedFor(worldSeed, id), so a town
+ * is always the same wherever the hunter comes from.<p>
+ * Only the most recently visited towns are kept. When one is dropped, it is simply built again the next time
+ * it is reached; if it had been searched or dug, that is remembered on the side so it can't be searched again.
+ * Those two flags are kept in an open-addressed table of town ids and flag bytes, 10 to 20 bytes for each
+ * town the hunter has left behind after searching or digging it, so a world of millions of towns only costs
+ * memory for the towns the hunter has actually been to.
+ */
+
+public class World {
+    // constants
+    private static final double ROAD_CHANCE = 0.5;
+    private static final int SEARCHED = 1;
+    private static final int DUG = 2;
+    private static final int EMPTY = -1; // no town id is negative
+    private static final int INITIAL_FORGOTTEN_CAPACITY = 16;
+
+    // instance variables
+    private final long worldSeed;
+    private final int width;
+    private final int height;
+    private final Function<GameRandom, Town> towns;
+    private final LinkedHashMap<Integer, Town> cache;
+    private final Map<Integer, Town> kept; // the same towns as cache, for lookups that mustn't count as a visit
+    private int[] forgottenIds;     // the dropped towns that were searched or dug, or EMPTY
+    private byte[] forgottenVisits; // SEARCHED and DUG for the town in the same slot
+    private int forgottenCount;
+
+    /**
+     * @param worldSeed The seed the whole world is built from.
+     * @param width How many towns there are across.
+     * @param height How many towns there are down.
+     * @param cacheSize How many towns to keep before the least recently visited is dropped.
+     * @param towns Builds a town from its own layout generator.
+     */
+    public World(long worldSeed, int width, int height, int cacheSize, Function<GameRandom, Town> towns) {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many towns: " + width + " x " + height);
+        }
+        this.worldSeed = worldSeed;
+        this.width = width;
+        this.height = height;
+        this.towns = towns;
+        forgottenIds = new int[INITIAL_FORGOTTEN_CAPACITY];
+        Arrays.fill(forgottenIds, EMPTY);
+        forgottenVisits = new byte[INITIAL_FORGOTTEN_CAPACITY];
+        kept = new HashMap<Integer, Town>();
+        cache = new LinkedHashMap<Integer, Town>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, Town> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+                Town town = eldest.getValue();
+                if (town.isSearched() || town.isDug()) {
+                    forget(eldest.getKey(), (town.isSearched() ? SEARCHED : 0) | (town.isDug() ? DUG : 0));
+                }
+                kept.remove(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets a town, building it if it isn't one of the recently visited towns.
+     *
+     * @param id The town's number.
+     * @return The town.
+     */
+    public Town getTown(int id) {
+        Town town = cache.get(id);
+        if (town == null) {
+            town = towns.apply(new GameRandom(townSeed(id)));
+            int visit = forgottenVisit(id);
+            if (visit != 0) {
+                town.setVisited((visit & SEARCHED) != 0, (visit & DUG) != 0);
+                forget(id, 0);
+            }
+            cache.put(id, town);
+            kept.put(id, town);
+        }
+        return town;
+    }
+
+    /**
+     * Finds out which terrain surrounds a town without building it.
+     *
+     * @param id The town's number.
+     * @return The terrain's index, as used by Town.terrainFor().
+     */
+    public int terrainIndexOf(int id) {
+        return new GameRandom(townSeed(id)).nextInt(6);
+    }
+
+    /**
+     * Finds out which treasure is hidden in a town without building it.
+     *
+     * @param id The town's number.
+     * @return The treasure's index: 0 crown, 1 trophy, 2 gem or 3 dust.
+     */
+    public int treasureIndexOf(int id) {
+        GameRandom layout = new GameRandom(townSeed(id));
+        layout.nextInt(6);    // terrain
+        layout.nextDouble();  // toughness
+        return layout.nextInt(4);
+    }
+
+    /**
+     * Finds out how dear a town's shop is without building it.
+     *
+     * @param id The town's number.
+     * @return What the town's prices are compared to the base costs.
+     */
+    public double priceMultiplierOf(int id) {
+        GameRandom layout = new GameRandom(townSeed(id));
+        layout.nextInt(6);    // terrain
+        layout.nextDouble();  // toughness
+        layout.nextInt(4);    // treasure
+        return Town.priceMultiplierFor(layout.nextDouble());
+    }
+
+    /**
+     * @param id The town's number.
+     * @return true if the town has already been searched for treasure.
+     */
+    public boolean isSearched(int id) {
+        int visit = forgottenVisit(id);
+        if (visit != 0) {
+            return (visit & SEARCHED) != 0;
+        }
+        // looked up in kept rather than cache, since a get() on cache would move the town to the back of the line
+        // to be dropped, and route planning would then decide which towns the hunter forgets
+        Town town = kept.get(id);
+        return town != null && town.isSearched();
+    }
+
+    /**
+     * Lists the towns a road leads to from a town.
+     *
+     * @param id The town's number.
+     * @param out Where to put the neighboring towns; needs room for 4.
+     * @return How many neighbors were put in out.
+     */
+    public int neighbors(int id, int[] out) {
+        int x = id % width;
+        int y = id / width;
+        int count = 0;
+        int east = y * width + (x + 1) % width;
+        int west = y * width + (x + width - 1) % width;
+        if (east != id) {
+            out[count++] = east;
+        }
+        if (west != id && west != east) {
+            out[count++] = west;
+        }
+        int south = ((y + 1) % height) * width + x;
+        int north = ((y + height - 1) % height) * width + x;
+        if (hasRoadSouth(id) && south != id) {
+            out[count++] = south;
+        }
+        if (hasRoadSouth(north) && north != id && north != south) {
+            out[count++] = north;
+        }
+        return count;
+    }
+
+    public int getTownCount() {
+        return width * height;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    /**
+     * @return How many towns are being kept in memory.
+     */
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * @return How many dropped towns had been searched or dug.
+     */
+    public int getForgottenCount() {
+        return forgottenCount;
+    }
+
+    // forgotten visits: open addressing with linear probing, keyed by town id
+
+    // the SEARCHED and DUG flags of a dropped town, or 0 if it wasn't dropped after a visit
+    private int forgottenVisit(int id) {
+        int slot = forgottenSlot(id);
+        return forgottenIds[slot] == id ? forgottenVisits[slot] : 0;
+    }
+
+    private void forget(int id, int visit) {
+        int slot = forgottenSlot(id);
+        if (forgottenIds[slot] != id) {
+            if (visit == 0) {
+                return;
+            }
+            if ((forgottenCount + 1) * 2 > forgottenIds.length) {
+                growForgotten();
+                slot = forgottenSlot(id);
+            }
+            forgottenIds[slot] = id;
+            forgottenVisits[slot] = (byte) visit;
+            forgottenCount++;
+        } else if (visit != 0) {
+            forgottenVisits[slot] = (byte) visit;
+        } else {
+            removeForgotten(slot);
+            forgottenCount--;
+        }
+    }
+
+    private int forgottenSlot(int id) {
+        int mask = forgottenIds.length - 1;
+        int slot = forgottenHome(id, mask);
+        while (forgottenIds[slot] != EMPTY && forgottenIds[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // empties a slot, then moves back any later town of the same run that can no longer be found past the gap
+    private void removeForgotten(int slot) {
+        int mask = forgottenIds.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; forgottenIds[next] != EMPTY; next = (next + 1) & mask) {
+            int home = forgottenHome(forgottenIds[next], mask);
+            // a town can move back into the gap unless its home slot lies between the gap and where it is now
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                forgottenIds[gap] = forgottenIds[next];
+                forgottenVisits[gap] = forgottenVisits[next];
+                gap = next;
+            }
+        }
+        forgottenIds[gap] = EMPTY;
+        forgottenVisits[gap] = 0;
+    }
+
+    private static int forgottenHome(int id, int mask) {
+        return (int) ((id * 0x9e3779b97f4a7c15L) >>> 32) & mask;
+    }
+
+    private void growForgotten() {
+        int[] ids = forgottenIds;
+        byte[] visits = forgottenVisits;
+        forgottenIds = new int[ids.length * 2];
+        forgottenVisits = new byte[ids.length * 2];
+        Arrays.fill(forgottenIds, EMPTY);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != EMPTY) {
+                int slot = forgottenSlot(ids[i]);
+                forgottenIds[slot] = ids[i];
+                forgottenVisits[slot] = visits[i];
+            }
+        }
+    }
+
+    private long townSeed(int id) {
+        return GameRandom.seedFor(worldSeed, id);
+    }
+
+    // each road south is decided by its own roll, so it is the same seen from either end
+    private boolean hasRoadSouth(int id) {
+        if (id % width == 0) {
+            return true;
+        }
+        return new GameRandom(GameRandom.seedFor(~worldSeed, id)).nextDouble() < ROAD_CHANCE;
+    }
+}